@@ -11,4 +11,12 @@ public abstract class AbstractVisitor {
 
     public void visitField(Object source, Field field, Annotation annotation) {
     }
+
+    /**
+     * Called with the field metadata resolved once per class. By default it delegates to
+     * {@link #visitField(Object, Field, Annotation)}.
+     */
+    public void visitField(Object source, AnnotatedField field) {
+        visitField(source, field.getField(), field.getAnnotation());
+    }
 }
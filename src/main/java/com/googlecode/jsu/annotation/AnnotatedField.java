@@ -0,0 +1,36 @@
+package com.googlecode.jsu.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+
+/**
+ * Field of a class together with one of its annotations, as resolved once by {@link AnnotatedFields}.
+ * The field is already accessible, and the name given by the annotation value (or the field name
+ * if it has no value) is already resolved.
+ */
+public final class AnnotatedField {
+    private final Field field;
+    private final Annotation annotation;
+    private final String name;
+
+    AnnotatedField(Field field, Annotation annotation, String name) {
+        this.field = field;
+        this.annotation = annotation;
+        this.name = name;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Annotation getAnnotation() {
+        return annotation;
+    }
+
+    /**
+     * @return the value of the annotation, or the field name if it is empty.
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,111 @@
+package com.googlecode.jsu.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Annotated fields of a class, grouped by annotation type. They are scanned only once per class,
+ * so processing annotations of an object does not use reflection on its class anymore.
+ */
+public final class AnnotatedFields {
+    private static final Logger log = LoggerFactory.getLogger(AnnotatedFields.class);
+
+    private static final ConcurrentMap<Class<?>, AnnotatedFields> cache =
+            new ConcurrentHashMap<Class<?>, AnnotatedFields>();
+
+    private final Map<Class<? extends Annotation>, List<AnnotatedField>> fields;
+
+    private AnnotatedFields(Class<?> clazz) {
+        Map<Class<? extends Annotation>, List<AnnotatedField>> result =
+                new HashMap<Class<? extends Annotation>, List<AnnotatedField>>();
+
+        for (Field field : clazz.getDeclaredFields()) {
+            Annotation[] annotations = field.getDeclaredAnnotations();
+
+            if (annotations.length == 0) {
+                continue;
+            }
+
+            try {
+                field.setAccessible(true);
+            } catch (SecurityException e) {
+                log.error("Unable to access class field - " + field.getName(), e);
+            }
+
+            for (Annotation annotation : annotations) {
+                List<AnnotatedField> list = result.get(annotation.annotationType());
+
+                if (list == null) {
+                    list = new ArrayList<AnnotatedField>(4);
+
+                    result.put(annotation.annotationType(), list);
+                }
+
+                list.add(new AnnotatedField(field, annotation, getName(field, annotation)));
+            }
+        }
+
+        this.fields = result;
+    }
+
+    /**
+     * @return the annotated fields of the class, scanned the first time it is asked for.
+     */
+    public static AnnotatedFields forClass(Class<?> clazz) {
+        AnnotatedFields result = cache.get(clazz);
+
+        if (result == null) {
+            result = new AnnotatedFields(clazz);
+
+            AnnotatedFields previous = cache.putIfAbsent(clazz, result);
+
+            if (previous != null) {
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the fields declared by the class with given annotation.
+     */
+    public List<AnnotatedField> getFields(Class<? extends Annotation> annotation) {
+        List<AnnotatedField> result = fields.get(annotation);
+
+        return (result != null) ? result : Collections.<AnnotatedField>emptyList();
+    }
+
+    /**
+     * @return the String value of the annotation, or the field name if it has no such value.
+     */
+    private static String getName(Field field, Annotation annotation) {
+        String result = null;
+
+        try {
+            Method valueMethod = annotation.annotationType().getMethod("value");
+            Object value = valueMethod.invoke(annotation);
+
+            if (value instanceof String) {
+                result = (String) value;
+            }
+        } catch (NoSuchMethodException e) {
+            // Everything ok
+        } catch (Exception e) {
+            log.debug("Unable to read value of annotation " + annotation, e);
+        }
+
+        return ((result == null) || ("".equals(result))) ? field.getName() : result;
+    }
+}
@@ -1,7 +1,5 @@
 package com.googlecode.jsu.annotation;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,15 +14,11 @@ public class AnnotationProcessor {
     }
 
     public void processAnnotations(Object object) {
-        Class<?> clazz = object.getClass();
+        AnnotatedFields fields = AnnotatedFields.forClass(object.getClass());
 
-        for (Field field : clazz.getDeclaredFields()) {
-            for (AbstractVisitor visitor : visitors) {
-                Annotation a = field.getAnnotation(visitor.getAnnotation());
-
-                if (a != null) {
-                    visitor.visitField(object, field, a);
-                }
+        for (AbstractVisitor visitor : visitors) {
+            for (AnnotatedField field : fields.getFields(visitor.getAnnotation())) {
+                visitor.visitField(object, field);
             }
         }
     }
@@ -0,0 +1,87 @@
+package com.googlecode.jsu.annotation;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binder built once per class. The annotated fields and their names are flattened into arrays,
+ * so binding an object is a loop of map lookups and field writes, without scanning the class,
+ * reading annotations or dispatching to visitors.
+ */
+public final class CompiledFieldBinder implements FieldBinder {
+    private static final Logger log = LoggerFactory.getLogger(CompiledFieldBinder.class);
+
+    private static final ConcurrentMap<Class<?>, CompiledFieldBinder> cache =
+            new ConcurrentHashMap<Class<?>, CompiledFieldBinder>();
+
+    private final Field[] argumentFields;
+    private final String[] argumentNames;
+    private final Field[] variableFields;
+    private final String[] variableNames;
+
+    private CompiledFieldBinder(Class<?> clazz) {
+        AnnotatedFields fields = AnnotatedFields.forClass(clazz);
+        List<AnnotatedField> arguments = fields.getFields(Argument.class);
+        List<AnnotatedField> variables = fields.getFields(TransientVariable.class);
+
+        this.argumentFields = new Field[arguments.size()];
+        this.argumentNames = new String[arguments.size()];
+        this.variableFields = new Field[variables.size()];
+        this.variableNames = new String[variables.size()];
+
+        for (int i = 0; i < argumentFields.length; i++) {
+            argumentFields[i] = arguments.get(i).getField();
+            argumentNames[i] = arguments.get(i).getName();
+        }
+
+        for (int i = 0; i < variableFields.length; i++) {
+            variableFields[i] = variables.get(i).getField();
+            variableNames[i] = variables.get(i).getName();
+        }
+    }
+
+    /**
+     * @return the binder of the class, built the first time it is asked for.
+     */
+    public static CompiledFieldBinder forClass(Class<?> clazz) {
+        CompiledFieldBinder result = cache.get(clazz);
+
+        if (result == null) {
+            result = new CompiledFieldBinder(clazz);
+
+            CompiledFieldBinder previous = cache.putIfAbsent(clazz, result);
+
+            if (previous != null) {
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.annotation.FieldBinder#bind(java.lang.Object, java.util.Map, java.util.Map)
+     */
+    public void bind(Object target, Map<String, Object> arguments, Map<String, Object> variables) {
+        set(target, argumentFields, argumentNames, arguments);
+        set(target, variableFields, variableNames, variables);
+    }
+
+    private static void set(Object target, Field[] fields, String[] names, Map<String, Object> values) {
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                fields[i].set(target, values.get(names[i]));
+            } catch (IllegalArgumentException e) {
+                log.error("Unable to set class field - " + names[i], e);
+            } catch (IllegalAccessException e) {
+                log.error("Unable to set class field - " + names[i], e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.googlecode.jsu.annotation;
+
+import java.util.Map;
+
+/**
+ * Copies workflow arguments and transient variables into the fields of an object annotated
+ * with {@link Argument} and {@link TransientVariable}.
+ */
+public interface FieldBinder {
+    /**
+     * @param target the object to initialize.
+     * @param arguments the values of {@link Argument} fields.
+     * @param variables the values of {@link TransientVariable} fields.
+     */
+    void bind(Object target, Map<String, Object> arguments, Map<String, Object> variables);
+}
@@ -52,6 +52,19 @@ public class MapFieldProcessor extends AbstractVisitor {
         }
     }
 
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.annotation.AbstractVisitor#visitField(java.lang.Object, com.googlecode.jsu.annotation.AnnotatedField)
+     */
+    public void visitField(Object source, AnnotatedField field) {
+        try {
+            field.getField().set(source, values.get(field.getName()));
+        } catch (IllegalArgumentException e) {
+            log.error("Unable to set class field - " + field.getName(), e);
+        } catch (IllegalAccessException e) {
+            log.error("Unable to set class field - " + field.getName(), e);
+        }
+    }
+
     protected String getAnnotationValue(Annotation annotation) {
         String result = null;
 
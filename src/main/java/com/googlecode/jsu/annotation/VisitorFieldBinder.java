@@ -0,0 +1,21 @@
+package com.googlecode.jsu.annotation;
+
+import java.util.Map;
+
+/**
+ * Binder which runs an {@link AnnotationProcessor} with one {@link MapFieldProcessor}
+ * for each annotation. It is the former way of binding, kept for comparison.
+ */
+public class VisitorFieldBinder implements FieldBinder {
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.annotation.FieldBinder#bind(java.lang.Object, java.util.Map, java.util.Map)
+     */
+    public void bind(Object target, Map<String, Object> arguments, Map<String, Object> variables) {
+        final AnnotationProcessor processor = new AnnotationProcessor();
+
+        processor.addVisitor(new MapFieldProcessor(Argument.class, arguments));
+        processor.addVisitor(new MapFieldProcessor(TransientVariable.class, variables));
+
+        processor.processAnnotations(target);
+    }
+}
@@ -10,4 +10,14 @@ public interface ConditionChecker {
      * Check two values and return true if condition success or false is not.
      */
     boolean checkValues(Object value1, Object value2);
+
+    /**
+     * Convert a constant value once, for comparing it later with {@link #checkPrepared(Object, PreparedValue)}.
+     */
+    PreparedValue prepare(Object value);
+
+    /**
+     * Same as {@link #checkValues(Object, Object)}, but the second value is already converted.
+     */
+    boolean checkPrepared(Object value1, PreparedValue value2);
 }
@@ -60,7 +60,65 @@ public class ConditionCheckerFactory {
     private final Logger log = LoggerFactory.getLogger(ConditionCheckerFactory.class);
     private final CheckerCompositeFactory checkerCompositeFactory = new CheckerCompositeFactory();
 
+    /**
+     * Checkers of all known types and conditions, indexed by their ids. Checkers are stateless.
+     * Numbers and dates are compared as primitives, other types through converters and snipets.
+     */
+    private final ConditionChecker[][] checkers;
+    private final boolean[][] registered;
+
+    public ConditionCheckerFactory() {
+        int maxComparison = 0;
+        int maxCondition = 0;
+
+        for (Integer id : COMPARISONS_CACHE.keySet()) {
+            maxComparison = Math.max(maxComparison, id);
+        }
+
+        for (Integer id : CONDITIONS_CACHE.keySet()) {
+            maxCondition = Math.max(maxCondition, id);
+        }
+
+        this.checkers = new ConditionChecker[maxComparison + 1][maxCondition + 1];
+        this.registered = new boolean[maxComparison + 1][maxCondition + 1];
+
+        for (ComparisonType type : COMPARISONS_CACHE.values()) {
+            // Option ids have no converter of their own, they are compared as strings.
+            ComparisonType converterType = OPTIONID.equals(type) ? STRING : type;
+
+            for (ConditionType condition : CONDITIONS_CACHE.values()) {
+                ConditionChecker checker = checkerCompositeFactory.getPrimitiveChecker(
+                        converterType.getMnemonic(), condition.getMnemonic()
+                );
+
+                if (checker == null) {
+                    checker = createChecker(converterType, condition);
+                }
+
+                checkers[type.getId()][condition.getId()] = checker;
+                registered[type.getId()][condition.getId()] = true;
+            }
+        }
+    }
+
+    /**
+     * Get checker for comparison type and condition. Known types and conditions are taken
+     * from the registry built at startup, other ones are created on each call.
+     */
     public ConditionChecker getChecker(ComparisonType type, ConditionType condition) {
+        int typeId = type.getId();
+        int conditionId = condition.getId();
+
+        if ((typeId >= 0) && (typeId < registered.length) &&
+                (conditionId >= 0) && (conditionId < registered[typeId].length) &&
+                registered[typeId][conditionId]) {
+            return checkers[typeId][conditionId];
+        }
+
+        return createChecker(type, condition);
+    }
+
+    private ConditionChecker createChecker(ComparisonType type, ConditionType condition) {
         String conditionClassName = CONDITION_CLASS_TEMPLATE + condition.getMnemonic();
         String comparisonClassName = COMPARISON_CLASS_TEMPLATE + type.getMnemonic();
 
@@ -0,0 +1,40 @@
+package com.googlecode.jsu.helpers;
+
+/**
+ * Value already converted by a {@link ConditionChecker}, so a constant can be compared
+ * many times without being converted again.
+ */
+public final class PreparedValue {
+    /** Value which could not be converted, any comparison with it fails. */
+    public static final PreparedValue INVALID = new PreparedValue(null, false);
+
+    private final Object value;
+    private final boolean valid;
+
+    public PreparedValue(Object value, boolean valid) {
+        this.value = value;
+        this.valid = valid;
+    }
+
+    /**
+     * @return the converted value, null for an empty value.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * @return false if the value could not be converted.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return valid ? String.valueOf(value) : "<invalid>";
+    }
+}
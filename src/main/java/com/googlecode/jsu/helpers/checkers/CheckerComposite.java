@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.googlecode.jsu.helpers.ConditionChecker;
+import com.googlecode.jsu.helpers.PreparedValue;
 
 /**
  * @author <A href="mailto:abashev at gmail dot com">Alexey Abashev</A>
@@ -24,8 +25,30 @@ class CheckerComposite implements ConditionChecker {
     /* (non-Javadoc)
      * @see com.googlecode.jsu.helpers.ConditionChecker#checkValues(java.lang.Object, java.lang.Object)
      */
-    @SuppressWarnings("unchecked")
     public final boolean checkValues(Object value1, Object value2) {
+        return checkPrepared(value1, prepare(value2));
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.ConditionChecker#prepare(java.lang.Object)
+     */
+    public final PreparedValue prepare(Object value) {
+        try {
+            return new PreparedValue(valueConverter.getComparable(value), true);
+        } catch (NumberFormatException e) {
+            log.warn("Wrong number format at [" + value + "]");
+        } catch (Exception e) {
+            log.warn("Unable to get comparable from [" + value + "]", e);
+        }
+
+        return PreparedValue.INVALID;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.ConditionChecker#checkPrepared(java.lang.Object, com.googlecode.jsu.helpers.PreparedValue)
+     */
+    @SuppressWarnings("unchecked")
+    public final boolean checkPrepared(Object value1, PreparedValue value2) {
         final Comparable<Comparable<?>> comp1;
         final Comparable<?> comp2;
 
@@ -41,18 +64,12 @@ class CheckerComposite implements ConditionChecker {
             return false;
         }
 
-        try {
-            comp2 = valueConverter.getComparable(value2);
-        } catch (NumberFormatException e) {
-            log.warn("Wrong number format at [" + value2 + "]");
-
-            return false;
-        } catch (Exception e) {
-            log.warn("Unable to get comparable from [" + value2 + "]", e);
-
+        if (!value2.isValid()) {
             return false;
         }
 
+        comp2 = (Comparable<?>) value2.getValue();
+
         boolean result = comparingSnipet.compareObjects(comp1, comp2);
 
         if (log.isDebugEnabled()) {
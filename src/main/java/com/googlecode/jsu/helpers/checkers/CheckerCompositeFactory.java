@@ -3,6 +3,8 @@ package com.googlecode.jsu.helpers.checkers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.googlecode.jsu.helpers.ConditionChecker;
+
 /**
  * @author <A href="mailto:abashev at gmail dot com">Alexey Abashev</A>
  */
@@ -28,6 +30,21 @@ public class CheckerCompositeFactory {
         return (new CheckerComposite(converter, snipet));
     }
 
+    /**
+     * Create checker comparing primitive values of the type, or null if the type has not one.
+     */
+    public ConditionChecker getPrimitiveChecker(String converterMnemonic, String snipetMnemonic) {
+        if ("Number".equals(converterMnemonic)) {
+            return new PrimitiveCheckerNumber(snipetMnemonic);
+        } else if ("Date".equals(converterMnemonic)) {
+            return new PrimitiveCheckerDate(snipetMnemonic);
+        } else if ("DateWithoutTime".equals(converterMnemonic)) {
+            return new PrimitiveCheckerDateWithoutTime(snipetMnemonic);
+        }
+
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T getInstance(String className) {
         T instance = null;
@@ -12,11 +12,20 @@ import com.atlassian.jira.project.Project;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author <A href="mailto:abashev at gmail dot com">Alexey Abashev</A>
  */
 public class ConverterString implements ValueConverter {
+    /** Bound of cached strategies, classes of other plugins should not be kept forever. */
+    private static final int MAX_STRATEGIES = 256;
+
+    /** Strategies of converting by class of value. */
+    private static final ConcurrentMap<Class<?>, Strategy> STRATEGIES =
+        new ConcurrentHashMap<Class<?>, Strategy>();
+
     /* (non-Javadoc)
      * @see com.googlecode.jsu.helpers.checkers.ValueConverter#getComparable(java.lang.Object)
      */
@@ -35,26 +44,118 @@ public class ConverterString implements ValueConverter {
     }
 
 
+    /**
+     * Convert value into its string representation. The way of converting is chosen once
+     * for each class of values.
+     */
     public String convert(Object value) {
         if (value == null || value instanceof String) {
             return (String) value;
-        } else if (value instanceof IssueConstant) {
+        }
+
+        return getStrategy(value.getClass()).convert(value);
+    }
+
+    private static Strategy getStrategy(Class<?> type) {
+        Strategy strategy = STRATEGIES.get(type);
+
+        if (strategy == null) {
+            if (STRATEGIES.size() >= MAX_STRATEGIES) {
+                STRATEGIES.clear();
+            }
+
+            strategy = createStrategy(type, true);
+
+            STRATEGIES.put(type, strategy);
+        }
+
+        return strategy;
+    }
+
+    /**
+     * @param collections false when strategy is resolved for a collection of other size than one.
+     */
+    private static Strategy createStrategy(Class<?> type, boolean collections) {
+        if (String.class.equals(type)) {
+            return STRING;
+        } else if (IssueConstant.class.isAssignableFrom(type)) {
+            return ISSUE_CONSTANT;
+        } else if (Project.class.isAssignableFrom(type)) {
+            return PROJECT;
+        } else if (collections && Collection.class.isAssignableFrom(type)) {
+            return new CollectionStrategy(createStrategy(type, false));
+        } else if (Option.class.isAssignableFrom(type)) {
+            return OPTION;
+        } else if (com.atlassian.jira.issue.fields.option.Option.class.isAssignableFrom(type)) {
+            return FIELD_OPTION;
+        } else if (ApplicationUser.class.isAssignableFrom(type)) {
+            //https://developer.atlassian.com/display/JIRADEV/Renamable+Users+in+JIRA+6.0
+            return APPLICATION_USER;
+        } else if (User.class.isAssignableFrom(type)) {
+            return USER;
+        } else if (GenericEntity.class.isAssignableFrom(type)) {
+            return GENERIC_ENTITY;
+        } else {
+            return new AccessorStrategy(getMethod(type, "getName"), getMethod(type, "getId"));
+        }
+    }
+
+    private static Method getMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private interface Strategy {
+        String convert(Object value);
+    }
+
+    private static final Strategy STRING = new Strategy() {
+        public String convert(Object value) {
+            return (String) value;
+        }
+    };
+
+    private static final Strategy ISSUE_CONSTANT = new Strategy() {
+        public String convert(Object value) {
             return ((IssueConstant) value).getName();
-        } else if (value instanceof Project) {
-            return ((Project)value).getKey();
-        } else if (value instanceof Collection && ((Collection) value).size() == 1) {
-            return convert(((Collection) value).iterator().next());
-        } else if (value instanceof Option) {
+        }
+    };
+
+    private static final Strategy PROJECT = new Strategy() {
+        public String convert(Object value) {
+            return ((Project) value).getKey();
+        }
+    };
+
+    private static final Strategy OPTION = new Strategy() {
+        public String convert(Object value) {
             return ((Option) value).getValue();
-        } else if (value instanceof com.atlassian.jira.issue.fields.option.Option) {
+        }
+    };
+
+    private static final Strategy FIELD_OPTION = new Strategy() {
+        public String convert(Object value) {
             return ((com.atlassian.jira.issue.fields.option.Option) value).getName();
-        } else if (value instanceof ApplicationUser) {
+        }
+    };
+
+    private static final Strategy APPLICATION_USER = new Strategy() {
+        public String convert(Object value) {
             return ((ApplicationUser) value).getName();
-            //https://developer.atlassian.com/display/JIRADEV/Renamable+Users+in+JIRA+6.0
-        } else if (value instanceof User) {
+        }
+    };
+
+    private static final Strategy USER = new Strategy() {
+        public String convert(Object value) {
             return ((User) value).getName();
         }
-        else if (value instanceof GenericEntity) {
+    };
+
+    private static final Strategy GENERIC_ENTITY = new Strategy() {
+        public String convert(Object value) {
             String s = ((GenericEntity) value).getString("name");
             if (StringUtils.isEmpty(s)) {
                 s = ((GenericEntity) value).getString("id");
@@ -63,15 +164,55 @@ public class ConverterString implements ValueConverter {
                 }
             }
             return s;
-        } else {
-            try {
-                Method getName = value.getClass().getMethod("getName");
-                return getName.invoke(value).toString();
-            } catch (Exception e) { /* try getId() ... */ }
-            try {
-                Method getId = value.getClass().getMethod("getId");
-                return getId.invoke(value).toString();
-            } catch (Exception e) { /* use toString() ... */ }
+        }
+    };
+
+    /**
+     * Collection of one element is converted as this element, other ones as any other object.
+     */
+    private static final class CollectionStrategy implements Strategy {
+        private final Strategy otherSize;
+
+        private CollectionStrategy(Strategy otherSize) {
+            this.otherSize = otherSize;
+        }
+
+        public String convert(Object value) {
+            Collection<?> collection = (Collection<?>) value;
+
+            if (collection.size() == 1) {
+                Object element = collection.iterator().next();
+
+                return (element == null) ? null : getStrategy(element.getClass()).convert(element);
+            }
+
+            return otherSize.convert(value);
+        }
+    }
+
+    /**
+     * Result of getName() or getId() if class has them, toString() otherwise.
+     */
+    private static final class AccessorStrategy implements Strategy {
+        private final Method getName;
+        private final Method getId;
+
+        private AccessorStrategy(Method getName, Method getId) {
+            this.getName = getName;
+            this.getId = getId;
+        }
+
+        public String convert(Object value) {
+            if (getName != null) {
+                try {
+                    return getName.invoke(value).toString();
+                } catch (Exception e) { /* try getId() ... */ }
+            }
+            if (getId != null) {
+                try {
+                    return getId.invoke(value).toString();
+                } catch (Exception e) { /* use toString() ... */ }
+            }
             return value.toString();
         }
     }
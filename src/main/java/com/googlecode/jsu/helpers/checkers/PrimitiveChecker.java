@@ -0,0 +1,139 @@
+package com.googlecode.jsu.helpers.checkers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.jsu.helpers.ConditionChecker;
+import com.googlecode.jsu.helpers.PreparedValue;
+
+/**
+ * Checker for values which are compared as primitives, without converting them into
+ * {@link Comparable} objects. Empty values are handled the same way as the snipets do.
+ */
+abstract class PrimitiveChecker implements ConditionChecker {
+    private static final int LESS = 1;
+    private static final int EQUAL = 2;
+    private static final int GREATER = 4;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /** Results of comparison which satisfy the condition. */
+    private final int accepted;
+
+    /** Result when both values are empty. */
+    private final boolean bothEmpty;
+
+    /** Result when only one value is empty. */
+    private final boolean oneEmpty;
+
+    protected PrimitiveChecker(String snipetMnemonic) {
+        if ("E".equals(snipetMnemonic)) {
+            this.accepted = EQUAL;
+            this.bothEmpty = true;
+            this.oneEmpty = false;
+        } else if ("NE".equals(snipetMnemonic)) {
+            this.accepted = LESS | GREATER;
+            this.bothEmpty = false;
+            this.oneEmpty = true;
+        } else if ("G".equals(snipetMnemonic)) {
+            this.accepted = GREATER;
+            this.bothEmpty = false;
+            this.oneEmpty = false;
+        } else if ("GE".equals(snipetMnemonic)) {
+            this.accepted = GREATER | EQUAL;
+            this.bothEmpty = true;
+            this.oneEmpty = false;
+        } else if ("L".equals(snipetMnemonic)) {
+            this.accepted = LESS;
+            this.bothEmpty = false;
+            this.oneEmpty = false;
+        } else if ("LE".equals(snipetMnemonic)) {
+            this.accepted = LESS | EQUAL;
+            this.bothEmpty = true;
+            this.oneEmpty = false;
+        } else {
+            throw new IllegalArgumentException("Unknown condition [" + snipetMnemonic + "]");
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.ConditionChecker#checkValues(java.lang.Object, java.lang.Object)
+     */
+    public final boolean checkValues(Object value1, Object value2) {
+        try {
+            return compare(value1, value2);
+        } catch (NumberFormatException e) {
+            log.warn("Wrong number format at [" + value1 + "] or [" + value2 + "]");
+        } catch (Exception e) {
+            log.warn("Unable to compare [" + value1 + "] and [" + value2 + "]", e);
+        }
+
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.ConditionChecker#prepare(java.lang.Object)
+     */
+    public final PreparedValue prepare(Object value) {
+        try {
+            return new PreparedValue(convert(value), true);
+        } catch (NumberFormatException e) {
+            log.warn("Wrong number format at [" + value + "]");
+        } catch (Exception e) {
+            log.warn("Unable to get comparable from [" + value + "]", e);
+        }
+
+        return PreparedValue.INVALID;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.ConditionChecker#checkPrepared(java.lang.Object, com.googlecode.jsu.helpers.PreparedValue)
+     */
+    public final boolean checkPrepared(Object value1, PreparedValue value2) {
+        try {
+            return comparePrepared(value1, value2);
+        } catch (NumberFormatException e) {
+            log.warn("Wrong number format at [" + value1 + "]");
+        } catch (Exception e) {
+            log.warn("Unable to get comparable from [" + value1 + "]", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Compare two raw values.
+     */
+    protected abstract boolean compare(Object value1, Object value2);
+
+    /**
+     * Compare a raw value with a prepared one. Raw value is converted even if prepared one
+     * is not valid, so wrong values are reported the same way as by {@link #compare(Object, Object)}.
+     */
+    protected abstract boolean comparePrepared(Object value1, PreparedValue value2);
+
+    /**
+     * Convert value into a boxed primitive, or null for an empty value.
+     */
+    protected abstract Object convert(Object value);
+
+    /**
+     * @param result the result of comparing two not empty values, as returned by {@link Comparable#compareTo(Object)}.
+     */
+    protected final boolean matches(int result) {
+        if (result < 0) {
+            return ((accepted & LESS) != 0);
+        } else if (result > 0) {
+            return ((accepted & GREATER) != 0);
+        } else {
+            return ((accepted & EQUAL) != 0);
+        }
+    }
+
+    /**
+     * Result when at least one value is empty.
+     */
+    protected final boolean matchesEmpty(boolean empty1, boolean empty2) {
+        return (empty1 && empty2) ? bothEmpty : oneEmpty;
+    }
+}
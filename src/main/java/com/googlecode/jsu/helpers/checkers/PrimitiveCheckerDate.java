@@ -0,0 +1,104 @@
+package com.googlecode.jsu.helpers.checkers;
+
+import java.util.Calendar;
+
+import com.googlecode.jsu.helpers.PreparedValue;
+
+/**
+ * Compares dates as epoch milliseconds truncated to the minute, like {@link ConverterDate}
+ * does, but without clearing fields of the given calendars.
+ */
+class PrimitiveCheckerDate extends PrimitiveChecker {
+    protected static final long MILLIS_PER_MINUTE = 60L * 1000L;
+    protected static final long MILLIS_PER_DAY = 24L * 60L * MILLIS_PER_MINUTE;
+
+    public PrimitiveCheckerDate(String snipetMnemonic) {
+        super(snipetMnemonic);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#compare(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    protected boolean compare(Object value1, Object value2) {
+        final boolean empty1 = (value1 == null);
+        final long date1 = empty1 ? 0 : toLong(value1);
+        final boolean empty2 = (value2 == null);
+        final long date2 = empty2 ? 0 : toLong(value2);
+
+        if (empty1 || empty2) {
+            return matchesEmpty(empty1, empty2);
+        }
+
+        return matches(compareLongs(date1, date2));
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#comparePrepared(java.lang.Object, com.googlecode.jsu.helpers.PreparedValue)
+     */
+    @Override
+    protected boolean comparePrepared(Object value1, PreparedValue value2) {
+        final boolean empty1 = (value1 == null);
+        final long date1 = empty1 ? 0 : toLong(value1);
+
+        if (!value2.isValid()) {
+            return false;
+        }
+
+        final Long date2 = (Long) value2.getValue();
+
+        if (empty1 || (date2 == null)) {
+            return matchesEmpty(empty1, date2 == null);
+        }
+
+        return matches(compareLongs(date1, date2.longValue()));
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#convert(java.lang.Object)
+     */
+    @Override
+    protected Object convert(Object value) {
+        return (value == null) ? null : Long.valueOf(toLong(value));
+    }
+
+    private long toLong(Object object) {
+        if (object instanceof Calendar) {
+            Calendar cal = (Calendar) object;
+            long millis = cal.getTimeInMillis();
+
+            return truncate(millis, cal.getTimeZone().getOffset(millis));
+        }
+
+        throw new UnsupportedOperationException("Unsupported value type " + object);
+    }
+
+    /**
+     * @param millis epoch milliseconds.
+     * @param offset offset of the calendar time zone at this instant.
+     * @return the instant without seconds.
+     */
+    protected long truncate(long millis, int offset) {
+        long local = millis + offset;
+
+        return local - floorMod(local, MILLIS_PER_MINUTE) - offset;
+    }
+
+    protected static long floorDiv(long x, long y) {
+        long result = x / y;
+
+        if (((x % y) != 0) && ((x < 0) != (y < 0))) {
+            result--;
+        }
+
+        return result;
+    }
+
+    protected static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    private static int compareLongs(long x, long y) {
+        return (x < y) ? -1 : ((x == y) ? 0 : 1);
+    }
+}
@@ -0,0 +1,19 @@
+package com.googlecode.jsu.helpers.checkers;
+
+/**
+ * Compares dates as days since epoch in the time zone of each calendar, like
+ * {@link ConverterDateWithoutTime} does.
+ */
+class PrimitiveCheckerDateWithoutTime extends PrimitiveCheckerDate {
+    public PrimitiveCheckerDateWithoutTime(String snipetMnemonic) {
+        super(snipetMnemonic);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveCheckerDate#truncate(long, int)
+     */
+    @Override
+    protected long truncate(long millis, int offset) {
+        return floorDiv(millis + offset, MILLIS_PER_DAY);
+    }
+}
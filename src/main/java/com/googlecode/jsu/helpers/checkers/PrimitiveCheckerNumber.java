@@ -0,0 +1,76 @@
+package com.googlecode.jsu.helpers.checkers;
+
+import com.googlecode.jsu.helpers.PreparedValue;
+
+/**
+ * Compares numbers as primitive doubles. Accepts the same values as {@link ConverterNumber}.
+ */
+class PrimitiveCheckerNumber extends PrimitiveChecker {
+    public PrimitiveCheckerNumber(String snipetMnemonic) {
+        super(snipetMnemonic);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#compare(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    protected boolean compare(Object value1, Object value2) {
+        final boolean empty1 = isEmpty(value1);
+        final double number1 = empty1 ? 0 : toDouble(value1);
+        final boolean empty2 = isEmpty(value2);
+        final double number2 = empty2 ? 0 : toDouble(value2);
+
+        if (empty1 || empty2) {
+            return matchesEmpty(empty1, empty2);
+        }
+
+        return matches(Double.compare(number1, number2));
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#comparePrepared(java.lang.Object, com.googlecode.jsu.helpers.PreparedValue)
+     */
+    @Override
+    protected boolean comparePrepared(Object value1, PreparedValue value2) {
+        final boolean empty1 = isEmpty(value1);
+        final double number1 = empty1 ? 0 : toDouble(value1);
+
+        if (!value2.isValid()) {
+            return false;
+        }
+
+        final Double number2 = (Double) value2.getValue();
+
+        if (empty1 || (number2 == null)) {
+            return matchesEmpty(empty1, number2 == null);
+        }
+
+        return matches(Double.compare(number1, number2.doubleValue()));
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.helpers.checkers.PrimitiveChecker#convert(java.lang.Object)
+     */
+    @Override
+    protected Object convert(Object value) {
+        return isEmpty(value) ? null : Double.valueOf(toDouble(value));
+    }
+
+    private static boolean isEmpty(Object object) {
+        if (object == null) {
+            return true;
+        }
+
+        return (object instanceof String) && (((String) object).trim().length() == 0);
+    }
+
+    private static double toDouble(Object object) {
+        if (object instanceof String) {
+            return Double.parseDouble((String) object);
+        } else if (object instanceof Number) {
+            return ((Number) object).doubleValue();
+        } else {
+            throw new NumberFormatException();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.googlecode.jsu.transitionssummary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import com.atlassian.jira.issue.status.Status;
+
+/**
+ * Immutable table of the statuses defined when it was built, indexed by their numeric id.
+ * It is built once for each summarization, so every change history row is resolved with a
+ * binary search instead of a call to the constants manager.
+ *
+ * Ids which are unknown, or not numeric, are resolved to the given removed status.
+ */
+final class StatusLookup {
+    private final long[] ids;
+    private final Status[] statuses;
+    private final Status removedStatus;
+
+    StatusLookup(Collection<Status> allStatuses, Status removedStatus) {
+        Status[] sorted = new Status[allStatuses.size()];
+        long[] sortedIds = new long[sorted.length];
+        int size = 0;
+
+        for (Status status : allStatuses) {
+            if ((status != null) && isNumeric(status.getId())) {
+                sorted[size++] = status;
+            }
+        }
+
+        Arrays.sort(sorted, 0, size, new Comparator<Status>() {
+            public int compare(Status o1, Status o2) {
+                long id1 = Long.parseLong(o1.getId());
+                long id2 = Long.parseLong(o2.getId());
+
+                return (id1 < id2) ? -1 : ((id1 == id2) ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < size; i++) {
+            sortedIds[i] = Long.parseLong(sorted[i].getId());
+        }
+
+        this.ids = Arrays.copyOf(sortedIds, size);
+        this.statuses = Arrays.copyOf(sorted, size);
+        this.removedStatus = removedStatus;
+    }
+
+    /**
+     * @return the position of the status with given id, or -1 if it does not exist.
+     */
+    int indexOf(long statusId) {
+        int index = Arrays.binarySearch(ids, statusId);
+
+        return (index >= 0) ? index : -1;
+    }
+
+    /**
+     * @return the position of the status with given id, as it is stored in the Change History.
+     */
+    int indexOf(String statusId) {
+        return isNumeric(statusId) ? indexOf(Long.parseLong(statusId)) : -1;
+    }
+
+    /**
+     * @return the status at given position, the removed status for -1.
+     */
+    Status statusAt(int index) {
+        return (index >= 0) ? statuses[index] : removedStatus;
+    }
+
+    private static boolean isNumeric(String value) {
+        if ((value == null) || (value.length() == 0) || (value.length() > 18)) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if ((c < '0') || (c > '9')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -2,7 +2,6 @@ package com.googlecode.jsu.transitionssummary;
 
 import java.sql.Timestamp;
 
-import com.atlassian.jira.ComponentManager;
 import com.atlassian.jira.issue.status.Status;
 
 /**
@@ -13,25 +12,25 @@ import com.atlassian.jira.issue.status.Status;
  *
  */
 public class Transition {
-    private final Status removedStatus = new RemovedStatusImpl();
+    private static final Status removedStatus = new RemovedStatusImpl();
 
     private String changedBy;
     private Timestamp changedAt;
     private Status fromStatus;
     private Status toStatus;
     private Timestamp startAt;
-    private Long duration;
+    private long duration;
 
     public Transition () {
         this.startAt = null;
     }
 
-    public Long getDurationInMillis(){
+    public long getDurationInMillis(){
         return this.duration;
     }
 
     private void setDuration(){
-        Long retVal = new Long("-1");
+        long retVal = -1;
 
         // It calculates the duration since the transition began until the next one is executed.
         if (this.startAt != null) {
@@ -56,14 +55,14 @@ public class Transition {
     public Status getFromStatus() {
         return (fromStatus == null ? removedStatus : fromStatus);
     }
-    public void setFromStatus(Long fromStatus) {
-        this.fromStatus = ComponentManager.getInstance().getConstantsManager().getStatusObject(String.valueOf(fromStatus));
+    public void setFromStatus(Status fromStatus) {
+        this.fromStatus = fromStatus;
     }
     public Status getToStatus() {
         return (toStatus == null ? removedStatus : toStatus);
     }
-    public void setToStatus(Long toStatus) {
-        this.toStatus = ComponentManager.getInstance().getConstantsManager().getStatusObject(String.valueOf(toStatus));
+    public void setToStatus(Status toStatus) {
+        this.toStatus = toStatus;
     }
     public Timestamp getStartAt() {
         return startAt;
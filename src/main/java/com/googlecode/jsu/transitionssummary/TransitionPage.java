@@ -0,0 +1,42 @@
+package com.googlecode.jsu.transitionssummary;
+
+import java.util.List;
+
+/**
+ * A page of the executions of one transition, as read from the Change History.
+ */
+public class TransitionPage {
+    private final List<Transition> transitions;
+    private final int start;
+    private final boolean more;
+    private final boolean approximate;
+
+    public TransitionPage(List<Transition> transitions, int start, boolean more, boolean approximate) {
+        this.transitions = transitions;
+        this.start = start;
+        this.more = more;
+        this.approximate = approximate;
+    }
+
+    public List<Transition> getTransitions() {
+        return transitions;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return true if the transition was executed more times than given by this page.
+     */
+    public boolean isMore() {
+        return more;
+    }
+
+    /**
+     * @return true if only the beginning of a too long Change History was read.
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+}
@@ -1,8 +1,6 @@
 package com.googlecode.jsu.transitionssummary;
 
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.List;
 
 import com.atlassian.jira.datetime.DateTimeFormatter;
 import com.atlassian.jira.issue.status.Status;
@@ -13,32 +11,28 @@ import com.atlassian.jira.issue.status.Status;
  * This class represents the summary of a set of Transitions.
  *
  * Allowing to obtain the total duration, how many times it happened through her,
- * and who/when it was the last update.
+ * and who/when it was the last update. The individual transitions are not retained,
+ * only their count and total duration.
  *
  */
 public class TransitionSummary {
     private String id;
     private Status fromStatus;
     private Status toStatus;
-    private Long duration;
+    private long duration;
+    private int times;
     private String lastUpdater;
     private Timestamp lastUpdate;
-    private List<Transition> transitions = new ArrayList<Transition>();
     private DateTimeFormatter userFormatter;
+    private boolean approximate;
 
-    /**
-     * @param id an external ID generate.
-     */
     public TransitionSummary(
-            String id,
             Status fromStatus,
             Status toStatus,
             DateTimeFormatter userFormatter
     ) {
-        setId(id);
         setFromStatus(fromStatus);
         setToStatus(toStatus);
-        setDuration(new Long("0"));
         this.userFormatter = userFormatter;
     }
 
@@ -48,39 +42,76 @@ public class TransitionSummary {
      * Allows to add a transition and recalculate the summary values.
      */
     public void addTransition(Transition tran){
-        transitions.add(tran);
+        addTransition(tran.getChangedBy(), tran.getChangedAt(), tran.getDurationInMillis());
+    }
+
+    /**
+     * @param changedBy who executed the transition.
+     * @param changedAt when the transition was executed.
+     * @param durationInMillis the time spent in the source status.
+     *
+     * Allows to add a transition read from the Change History, without creating a Transition for it.
+     */
+    public void addTransition(String changedBy, Timestamp changedAt, long durationInMillis){
+        times++;
+
+        setLastUpdater(changedBy);
+        setLastupdate(changedAt);
 
-        setLastUpdater(tran.getChangedBy());
-        setLastupdate(tran.getChangedAt());
+        addTime(durationInMillis);
+    }
+
+    /**
+     * @param times how many transitions are added.
+     * @param durationInMillis the total duration of them.
+     * @param lastUpdater who executed the latest of them.
+     * @param lastUpdate when the latest of them was executed.
+     *
+     * Allows to add transitions already summarized, for instance read from the store.
+     */
+    public void addTransitions(int times, long durationInMillis, String lastUpdater, Timestamp lastUpdate){
+        this.times += times;
+
+        if ((this.lastUpdate == null) || ((lastUpdate != null) && lastUpdate.after(this.lastUpdate))) {
+            setLastUpdater(lastUpdater);
+            setLastupdate(lastUpdate);
+        }
 
-        addTime(tran.getDurationInMillis());
+        addTime(durationInMillis);
     }
 
     /**
      * @return a nice String format of the duration.
      */
     public String getDurationAsString(){
+        return formatDuration(this.getDurationInMillis());
+    }
+
+    /**
+     * @param duration a duration in milliseconds.
+     * @return a nice String format of the duration.
+     */
+    public static String formatDuration(long duration){
         String retVal;
-        long duration = this.getDurationInMillis();
 
         if(duration!=0){
-            Long days = duration / 86400000;
-            Long restDay = duration % 86400000;
+            long days = duration / 86400000;
+            long restDay = duration % 86400000;
 
-            Long hours = restDay / 3600000;
-            Long resthours = restDay % 3600000;
+            long hours = restDay / 3600000;
+            long resthours = restDay % 3600000;
 
-            Long minutes = resthours / 60000;
-            Long restMinutes = resthours % 60000;
+            long minutes = resthours / 60000;
+            long restMinutes = resthours % 60000;
 
-            Long seconds = restMinutes / 1000;
+            long seconds = restMinutes / 1000;
 
             // If it has been days, it does not have sense to show the seconds.
-            retVal = days.equals(new Long("0"))?"":String.valueOf(days) + "d ";
-            retVal = retVal + (hours.equals(new Long("0"))?"":String.valueOf(hours) + "h ");
-            retVal = retVal + (minutes.equals(new Long("0"))?"":String.valueOf(minutes) + "m ");
-            if((days.equals(new Long("0"))) && (hours.equals(new Long("0")))){
-                retVal = retVal + (seconds.equals(new Long("0"))?"":String.valueOf(seconds) + "s");
+            retVal = (days == 0)?"":String.valueOf(days) + "d ";
+            retVal = retVal + ((hours == 0)?"":String.valueOf(hours) + "h ");
+            retVal = retVal + ((minutes == 0)?"":String.valueOf(minutes) + "m ");
+            if((days == 0) && (hours == 0)){
+                retVal = retVal + ((seconds == 0)?"":String.valueOf(seconds) + "s");
             }
 
         }else{
@@ -91,14 +122,21 @@ public class TransitionSummary {
     }
 
     public int getTimesToTransition(){
-        return transitions.size();
+        return times;
     }
 
-    private void addTime(Long timeInMillis){
-        setDuration(getDurationInMillis() + timeInMillis);
+    private void addTime(long timeInMillis){
+        this.duration += timeInMillis;
     }
 
+    /**
+     * @return an ID built from both statuses, like "3to5".
+     */
     public String getId() {
+        if (id == null) {
+            id = fromStatus.getId() + "to" + toStatus.getId();
+        }
+
         return id;
     }
 
@@ -128,11 +166,18 @@ public class TransitionSummary {
         return lastUpdater;
     }
 
-    private void setId(String id) {
-        this.id = id;
+    /**
+     * @return true if only the beginning of a too long Change History was summarized.
+     */
+    public boolean isApproximate() {
+        return approximate;
     }
 
-    public Long getDurationInMillis() {
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    public long getDurationInMillis() {
         return duration;
     }
 
@@ -152,8 +197,4 @@ public class TransitionSummary {
         this.lastUpdater = lastUpdater;
     }
 
-    private void setDuration(Long duration) {
-        this.duration = duration;
-    }
-
 }
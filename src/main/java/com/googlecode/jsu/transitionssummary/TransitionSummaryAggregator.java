@@ -0,0 +1,71 @@
+package com.googlecode.jsu.transitionssummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.atlassian.jira.datetime.DateTimeFormatter;
+import com.googlecode.jsu.util.LongObjectHashMap;
+
+/**
+ * Groups status changes by transition (from status, to status). Each transition is keyed by
+ * both resolved statuses packed into a single long, so rows are accumulated without building
+ * string ids or retaining the individual transitions.
+ *
+ * Statuses which were removed are resolved to the same status, and then merged.
+ */
+final class TransitionSummaryAggregator {
+    private final StatusLookup statusLookup;
+    private final DateTimeFormatter userFormatter;
+    private final LongObjectHashMap<TransitionSummary> byTransition = new LongObjectHashMap<TransitionSummary>();
+    private final List<TransitionSummary> summaries = new ArrayList<TransitionSummary>();
+    private boolean approximate = false;
+
+    TransitionSummaryAggregator(StatusLookup statusLookup, DateTimeFormatter userFormatter) {
+        this.statusLookup = statusLookup;
+        this.userFormatter = userFormatter;
+    }
+
+    /**
+     * @return the summary of the transition between given status ids, created the first time.
+     */
+    TransitionSummary get(String fromStatusId, String toStatusId) {
+        int fromIndex = statusLookup.indexOf(fromStatusId);
+        int toIndex = statusLookup.indexOf(toStatusId);
+        long key = ((long) fromIndex << 32) | (toIndex & 0xffffffffL);
+
+        TransitionSummary summary = byTransition.get(key);
+
+        if (summary == null) {
+            summary = new TransitionSummary(
+                    statusLookup.statusAt(fromIndex),
+                    statusLookup.statusAt(toIndex),
+                    userFormatter
+            );
+
+            summary.setApproximate(approximate);
+
+            byTransition.put(key, summary);
+            summaries.add(summary);
+        }
+
+        return summary;
+    }
+
+    /**
+     * Flags all summaries as approximate, because not all transitions were added.
+     */
+    void markApproximate() {
+        approximate = true;
+
+        for (TransitionSummary summary : summaries) {
+            summary.setApproximate(true);
+        }
+    }
+
+    /**
+     * @return all summaries, in the order their transitions were first found.
+     */
+    List<TransitionSummary> getSummaries() {
+        return summaries;
+    }
+}
@@ -0,0 +1,216 @@
+package com.googlecode.jsu.transitionssummary;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Least recently used cache of computed transition summaries. An entry is only valid for the
+ * issue update timestamp it was computed for, so any change of the issue makes it a miss.
+ *
+ * The cache is bounded by number of issues ({@value #MAX_SIZE_PROPERTY}) and by an estimation
+ * of the retained memory ({@value #MAX_BYTES_PROPERTY}). Its statistics are published as the
+ * MBean {@value #OBJECT_NAME}.
+ */
+public class TransitionSummaryCache implements TransitionSummaryCacheMBean, InitializingBean, DisposableBean {
+    public static final String MAX_SIZE_PROPERTY = "jsu.transitionssummary.cache.size";
+    public static final String MAX_BYTES_PROPERTY = "jsu.transitionssummary.cache.bytes";
+    public static final String OBJECT_NAME = "com.googlecode.jsu:type=TransitionSummaryCache";
+
+    private static final Logger log = LoggerFactory.getLogger(TransitionSummaryCache.class);
+
+    /** Rough size of a cache entry without summaries, and of each summary with its statuses references. */
+    private static final int ENTRY_BYTES = 128;
+    private static final int SUMMARY_BYTES = 160;
+
+    private final int maxSize;
+    private final long maxBytes;
+    private final Map<Long, CacheEntry> entries;
+
+    private long estimatedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public TransitionSummaryCache() {
+        this.maxSize = Integer.getInteger(MAX_SIZE_PROPERTY, 1000);
+        this.maxBytes = Long.getLong(MAX_BYTES_PROPERTY, 8L * 1024 * 1024);
+        this.entries = new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cached summaries of the issue, or null if they are not cached for this update timestamp.
+     */
+    public synchronized List<TransitionSummary> get(Long issueId, Timestamp updated) {
+        CacheEntry entry = entries.get(issueId);
+
+        if ((entry != null) && (updated != null) && (entry.updated == updated.getTime())) {
+            hits++;
+
+            return new ArrayList<TransitionSummary>(entry.summaries);
+        }
+
+        misses++;
+
+        if (entry != null) {
+            remove(issueId);
+        }
+
+        return null;
+    }
+
+    /**
+     * Caches the summaries computed for the issue at given update timestamp.
+     */
+    public synchronized void put(Long issueId, Timestamp updated, List<TransitionSummary> summaries) {
+        if (updated == null) {
+            return;
+        }
+
+        CacheEntry entry = new CacheEntry(
+                updated.getTime(), Collections.unmodifiableList(new ArrayList<TransitionSummary>(summaries))
+        );
+
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+
+        remove(issueId);
+
+        entries.put(issueId, entry);
+        estimatedBytes += entry.bytes;
+
+        evict();
+    }
+
+    /**
+     * Drops the summaries of the issue.
+     */
+    public synchronized void invalidate(Long issueId) {
+        remove(issueId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(this, name);
+        } catch (Exception e) {
+            log.warn("Unable to register cache statistics as " + OBJECT_NAME, e);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to unregister cache statistics " + OBJECT_NAME, e);
+        }
+
+        clear();
+    }
+
+    private void remove(Long issueId) {
+        CacheEntry entry = entries.remove(issueId);
+
+        if (entry != null) {
+            estimatedBytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Removes least recently used entries until both bounds are respected.
+     */
+    private void evict() {
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+
+        while (((entries.size() > maxSize) || (estimatedBytes > maxBytes)) && iterator.hasNext()) {
+            CacheEntry eldest = iterator.next();
+
+            iterator.remove();
+            estimatedBytes -= eldest.bytes;
+            evictions++;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Transition summary cache [size=" + entries.size() + ";bytes=" + estimatedBytes +
+                    ";hits=" + hits + ";misses=" + misses + ";evictions=" + evictions + "]"
+            );
+        }
+    }
+
+    private static final class CacheEntry {
+        private final long updated;
+        private final List<TransitionSummary> summaries;
+        private final long bytes;
+
+        private CacheEntry(long updated, List<TransitionSummary> summaries) {
+            this.updated = updated;
+            this.summaries = summaries;
+            this.bytes = ENTRY_BYTES + (long) SUMMARY_BYTES * summaries.size();
+        }
+    }
+}
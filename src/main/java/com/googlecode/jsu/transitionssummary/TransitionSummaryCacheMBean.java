@@ -0,0 +1,22 @@
+package com.googlecode.jsu.transitionssummary;
+
+/**
+ * Management interface of {@link TransitionSummaryCache}, allows to size the cache.
+ */
+public interface TransitionSummaryCacheMBean {
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    int getSize();
+
+    int getMaxSize();
+
+    long getEstimatedBytes();
+
+    long getMaxBytes();
+
+    void clear();
+}
@@ -1,10 +1,18 @@
 package com.googlecode.jsu.transitionssummary;
 
 import com.atlassian.core.util.map.EasyMap;
+import com.atlassian.jira.config.ConstantsManager;
 import com.atlassian.jira.datetime.DateTimeFormatter;
 import com.atlassian.jira.datetime.DateTimeFormatterFactory;
 import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.status.Status;
 import com.atlassian.jira.ofbiz.OfBizDelegator;
+import com.atlassian.jira.ofbiz.OfBizListIterator;
+import com.googlecode.jsu.transitionssummary.store.IssueTransitionsEntity;
+import com.googlecode.jsu.transitionssummary.store.TransitionAggregateEntity;
+import com.googlecode.jsu.transitionssummary.store.TransitionSummaryStore;
+import org.ofbiz.core.entity.EntityFieldMap;
+import org.ofbiz.core.entity.EntityOperator;
 import org.ofbiz.core.entity.GenericValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,118 +25,409 @@ import java.util.*;
  *
  * This class is in charge to obtain the changes from the Change History, and to summarized them.
  *
+ * Summaries are kept in the {@link TransitionSummaryStore}. They are computed from the Change History
+ * only the first time an issue is asked for, and then maintained incrementally on every status change.
+ *
+ * The Change History is streamed, so memory does not depend on its length. At most
+ * {@value #MAX_HISTORY_PROPERTY} status changes (default {@value #DEFAULT_MAX_HISTORY}) are read,
+ * the summaries of longer histories are flagged as approximate.
+ *
  */
 public class TransitionsManager {
+    public static final String MAX_HISTORY_PROPERTY = "jsu.transitionssummary.history.max";
+    public static final int DEFAULT_MAX_HISTORY = 50000;
+
     private static final Logger log = LoggerFactory.getLogger(TransitionsManager.class);
 
+    /** View joining ChangeGroup and ChangeItem, as used by JIRA's own change history manager. */
+    private static final String CHANGE_ITEM_VIEW = "ChangeGroupChangeItemView";
+    private static final List<String> CHANGE_ITEM_ORDER = Arrays.asList("created ASC", "changeitemid ASC");
+    private static final List<String> LAST_CHANGE_ITEM_ORDER = Arrays.asList("created DESC", "changeitemid DESC");
+    private static final List<String> CHANGE_ITEM_FIELDS = Arrays.asList("author", "created", "oldvalue", "newvalue");
+
+    private final Status removedStatus = new RemovedStatusImpl();
+
     private final OfBizDelegator ofBizDelegator;
     private final DateTimeFormatter userFormatter;
+    private final ConstantsManager constantsManager;
+    private final TransitionSummaryStore transitionSummaryStore;
+    private final TransitionSummaryCache transitionSummaryCache;
+    private final int maxHistory;
 
     public TransitionsManager(OfBizDelegator ofBizDelegator,
-                              DateTimeFormatterFactory dateTimeFormatterFactory) {
+                              DateTimeFormatterFactory dateTimeFormatterFactory,
+                              ConstantsManager constantsManager,
+                              TransitionSummaryStore transitionSummaryStore,
+                              TransitionSummaryCache transitionSummaryCache) {
         this.ofBizDelegator = ofBizDelegator;
         this.userFormatter = dateTimeFormatterFactory.formatter().forLoggedInUser();
+        this.constantsManager = constantsManager;
+        this.transitionSummaryStore = transitionSummaryStore;
+        this.transitionSummaryCache = transitionSummaryCache;
+        this.maxHistory = Integer.getInteger(MAX_HISTORY_PROPERTY, DEFAULT_MAX_HISTORY);
     }
 
     /**
      * @param issue the current issue.
      * @return a List with the Transition Summaries.
      *
-     * It obtains all Transition Summaries.
+     * It obtains all Transition Summaries. They are taken from the cache while the issue is not
+     * updated, otherwise read from the store. The issue is backfilled from its Change History
+     * if it was never summarized before.
      */
     public List<TransitionSummary> getTransitionSummary(Issue issue){
-        Timestamp tsCreated = issue.getCreated();
-        // Reads all status changes, associated with the execution of transitions.
-        List<Transition> statusChanges = getStatusChanges(issue, tsCreated);
+        final Long issueId = issue.getId();
+        List<TransitionSummary> summaries = transitionSummaryCache.get(issueId, issue.getUpdated());
 
-        if (statusChanges.isEmpty()) {
-            return Collections.emptyList();
+        if (summaries == null) {
+            summaries = readTransitionSummary(issue);
+
+            transitionSummaryCache.put(issueId, issue.getUpdated(), summaries);
         }
 
-        Map<String, TransitionSummary> summary = new TreeMap<String, TransitionSummary>();
-        List<TransitionSummary> retList = new ArrayList<TransitionSummary>();
+        return summaries;
+    }
 
-        for (Transition trans : statusChanges) {
-            // Sets an ID for the Transition.
-            String transitionId = trans.getFromStatus().getId() + "to" + trans.getToStatus().getId();
+    /**
+     * @param issue the current issue.
+     * @return a List with the Transition Summaries.
+     *
+     * Same as {@link #getTransitionSummary(Issue)}, but the cache is neither used nor filled.
+     */
+    public List<TransitionSummary> readTransitionSummary(Issue issue){
+        final long issueId = issue.getId();
+        IssueTransitionsEntity stored = transitionSummaryStore.getIssue(issueId);
+
+        if (stored != null) {
+            return toTransitionSummaries(transitionSummaryStore.getAggregates(issueId), stored.isTruncated());
+        }
+
+        synchronized (transitionSummaryStore.getIssueLock(issueId)) {
+            stored = transitionSummaryStore.getIssue(issueId);
 
-            log.debug("Transition found [" + transitionId + "] for issue " + issue.getKey());
+            if (stored != null) {
+                // Summarized meanwhile.
+                return toTransitionSummaries(transitionSummaryStore.getAggregates(issueId), stored.isTruncated());
+            }
 
-            TransitionSummary tranSummary;
+            List<TransitionSummary> summaries = computeTransitionSummary(issue);
 
-            if (summary.containsKey(transitionId)) {
-                tranSummary = summary.get(transitionId);
-            } else {
-                tranSummary = new TransitionSummary(
-                        transitionId,
-                        trans.getFromStatus(),
-                        trans.getToStatus(),
-                        this.userFormatter
-                );
+            store(issue, summaries);
+
+            return new ArrayList<TransitionSummary>(summaries);
+        }
+    }
+
+    /**
+     * @param issue the current issue.
+     * @return a List with the Transition Summaries.
+     *
+     * Same as {@link #readTransitionSummary(Issue)}, but an issue which was never summarized is
+     * computed from its Change History without being stored. It is meant for reports, which must
+     * not write to the store.
+     */
+    public List<TransitionSummary> findTransitionSummary(Issue issue){
+        final long issueId = issue.getId();
+        IssueTransitionsEntity stored = transitionSummaryStore.getIssue(issueId);
+
+        if (stored != null) {
+            return toTransitionSummaries(transitionSummaryStore.getAggregates(issueId), stored.isTruncated());
+        }
+
+        return computeTransitionSummary(issue);
+    }
+
+    /**
+     * Drops the cached summaries of an updated issue.
+     */
+    public void invalidate(long issueId) {
+        transitionSummaryCache.invalidate(issueId);
+    }
 
-                summary.put(transitionId, tranSummary);
-                retList.add(tranSummary);
+    /**
+     * @param issue the issue to summarize.
+     *
+     * Builds the stored summaries of an issue from its Change History, if they do not exist yet.
+     */
+    public void backfill(Issue issue) {
+        final long issueId = issue.getId();
+
+        synchronized (transitionSummaryStore.getIssueLock(issueId)) {
+            if (!transitionSummaryStore.isStored(issueId)) {
+                store(issue, computeTransitionSummary(issue));
             }
+        }
+    }
+
+    /**
+     * Adds a just committed status change to the stored summaries of the issue. Issues which were
+     * never summarized are ignored, they will be built completely from the Change History when needed.
+     */
+    public void addStatusChange(Issue issue, String fromStatusId, String toStatusId,
+                                String changedBy, Timestamp changedAt) {
+        final long issueId = issue.getId();
 
-            // Adds the current Transition to the corresponding TransitionSummary.
-            tranSummary.addTransition(trans);
+        transitionSummaryCache.invalidate(issueId);
+
+        boolean stored = transitionSummaryStore.addTransition(
+                issueId, fromStatusId, toStatusId, changedBy, changedAt
+        );
+
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Status change [" + fromStatusId + "to" + toStatusId + "] for issue " + issue.getKey() +
+                    (stored ? " stored" : " skipped, issue is not summarized yet")
+            );
         }
+    }
+
+    /**
+     * Removes the stored summaries of a deleted issue.
+     */
+    public void removeTransitionSummary(long issueId) {
+        transitionSummaryCache.invalidate(issueId);
 
-        return retList;
+        transitionSummaryStore.remove(issueId);
     }
 
     /**
      * @param issue the current issue.
-     * @param tsCreated when the issue was created. It allows to calculate the duration of the first transition.
-     * @return a List with the Status Changes.
+     * @param fromStatusId the source status of the transition, as given by its summary.
+     * @param toStatusId the target status of the transition, as given by its summary.
+     * @param start how many executions of the transition are skipped.
+     * @param max the maximum number of executions returned.
+     * @return a page with the executions of one transition, in the order they happened.
      *
-     * It obtains all status changes data from the Change History.
+     * It reads the individual executions of a transition from the Change History, so they are
+     * only built when somebody asks for them. Reading stops at the first execution after the page.
      */
-    private List<Transition> getStatusChanges(Issue issue, Timestamp tsCreated){
-        @SuppressWarnings("unchecked")
-        Map<String, Object> params = EasyMap.build("issue", issue.getId());
-        List<GenericValue> changeGroups = ofBizDelegator.findByAnd("ChangeGroup", params);
-
-        // Added by caisd_1998 at hotmail dot com
-        Collections.sort(changeGroups,
-            new Comparator<GenericValue>() {
-                public int compare(GenericValue o1, GenericValue o2) {
-                    return o1.getTimestamp("created").compareTo(o2.getTimestamp("created"));
+    public TransitionPage getTransitions(Issue issue, String fromStatusId, String toStatusId,
+                                         final int start, final int max) {
+        final StatusLookup statusLookup = newStatusLookup();
+        final int fromIndex = statusLookup.indexOf(fromStatusId);
+        final int toIndex = statusLookup.indexOf(toStatusId);
+        final List<Transition> transitions = new ArrayList<Transition>(Math.max(0, Math.min(max, 100)));
+        final int[] found = new int[1];
+        final boolean[] more = new boolean[1];
+
+        boolean truncated = readStatusChanges(issue, new StatusChangeHandler() {
+            public boolean statusChanged(String from, String to, String changedBy, Timestamp changedAt, Timestamp startAt) {
+                if ((statusLookup.indexOf(from) != fromIndex) || (statusLookup.indexOf(to) != toIndex)) {
+                    return true;
+                }
+
+                int position = found[0]++;
+
+                if (position - start >= max) {
+                    more[0] = true;
+
+                    return false;
+                }
+
+                if (position >= start) {
+                    Transition tran = new Transition();
+
+                    tran.setChangedBy(changedBy);
+                    tran.setChangedAt(changedAt);
+                    tran.setFromStatus(statusLookup.statusAt(fromIndex));
+                    tran.setToStatus(statusLookup.statusAt(toIndex));
+                    tran.setStartAt(startAt);
+
+                    transitions.add(tran);
+                }
+
+                return true;
+            }
+        });
+
+        return new TransitionPage(transitions, start, more[0], truncated);
+    }
+
+    /**
+     * @param issue the current issue.
+     * @return a List with the Transition Summaries.
+     *
+     * It computes all Transition Summaries from the Change History. Each status change is
+     * added to its summary as soon as it is read.
+     */
+    private List<TransitionSummary> computeTransitionSummary(final Issue issue){
+        final TransitionSummaryAggregator aggregator = new TransitionSummaryAggregator(newStatusLookup(), userFormatter);
+
+        boolean truncated = readStatusChanges(issue, new StatusChangeHandler() {
+            public boolean statusChanged(String from, String to, String changedBy, Timestamp changedAt, Timestamp startAt) {
+                TransitionSummary tranSummary = aggregator.get(from, to);
+
+                tranSummary.addTransition(changedBy, changedAt, changedAt.getTime() - startAt.getTime());
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Transition found [" + tranSummary.getId() + "] for issue " + issue.getKey());
                 }
+
+                return true;
+            }
+        });
+
+        if (truncated) {
+            aggregator.markApproximate();
+        }
+
+        return aggregator.getSummaries();
+    }
+
+    /**
+     * Stores the summaries computed from the Change History. The next status change is measured
+     * from the last one of the history, also when only its beginning was summarized, so changes
+     * which were not read are not booked as one long transition.
+     */
+    private void store(Issue issue, List<TransitionSummary> summaries) {
+        Timestamp lastStatusChange = issue.getCreated();
+        boolean approximate = false;
+
+        for (TransitionSummary summary : summaries) {
+            approximate |= summary.isApproximate();
+
+            if ((summary.getLastUpdate() != null) &&
+                    ((lastStatusChange == null) || summary.getLastUpdate().after(lastStatusChange))) {
+                lastStatusChange = summary.getLastUpdate();
             }
+        }
+
+        if (approximate) {
+            Timestamp lastRead = readLastStatusChange(issue);
+
+            if (lastRead != null) {
+                lastStatusChange = lastRead;
+            }
+        }
+
+        transitionSummaryStore.save(issue.getId(), lastStatusChange, summaries);
+    }
+
+    /**
+     * @return when the last status change of the Change History happened, null if there is none.
+     */
+    private Timestamp readLastStatusChange(Issue issue) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> params = EasyMap.build(
+                "issue", issue.getId(),
+                "field", "status",
+                "fieldtype", "jira"
+        );
+        OfBizListIterator changeItems = ofBizDelegator.findListIteratorByCondition(
+                CHANGE_ITEM_VIEW, new EntityFieldMap(params, EntityOperator.AND), null,
+                CHANGE_ITEM_FIELDS, LAST_CHANGE_ITEM_ORDER, null
         );
 
-        List<Transition> retList = new ArrayList<Transition>();
-        Timestamp tsStartDate = new Timestamp(tsCreated.getTime());
+        try {
+            GenericValue changeItem = changeItems.next();
 
-        for (GenericValue changeGroup : changeGroups) {
-            // Obtains all ChangeItems that contains an status change.
-            @SuppressWarnings("unchecked")
-            Map<String, Object> paramsItem = EasyMap.build(
-                    "group", changeGroup.getLong("id"),
-                    "field", "status",
-                    "fieldtype", "jira"
-            );
+            return (changeItem != null) ? changeItem.getTimestamp("created") : null;
+        } finally {
+            changeItems.close();
+        }
+    }
 
-            List<GenericValue> changeItems = ofBizDelegator.findByAnd("ChangeItem", paramsItem);
+    /**
+     * @param issue the current issue.
+     * @param handler receives every status change, in the order they happened, until it returns false.
+     * @return true if the Change History was too long, and not all status changes were read.
+     *
+     * It reads all status changes from the Change History. Change groups and their status items
+     * are read through a cursor over the joined view, already ordered by the database, so memory
+     * does not depend on the length of the history.
+     */
+    private boolean readStatusChanges(Issue issue, StatusChangeHandler handler){
+        @SuppressWarnings("unchecked")
+        Map<String, Object> params = EasyMap.build(
+                "issue", issue.getId(),
+                "field", "status",
+                "fieldtype", "jira"
+        );
+        // It allows to calculate the duration of the first transition.
+        Timestamp startAt = issue.getCreated();
+        int rows = 0;
+
+        OfBizListIterator changeItems = ofBizDelegator.findListIteratorByCondition(
+                CHANGE_ITEM_VIEW, new EntityFieldMap(params, EntityOperator.AND), null,
+                CHANGE_ITEM_FIELDS, CHANGE_ITEM_ORDER, null
+        );
 
-            for (GenericValue changeItem : changeItems) {
-                // And it creates the corresponding Transition.
-                Transition tran = new Transition();
+        try {
+            GenericValue changeItem;
 
-                tran.setChangedBy(changeGroup.getString("author"));
-                tran.setChangedAt(changeGroup.getTimestamp("created"));
-                tran.setFromStatus(Long.valueOf(changeItem.getString("oldvalue")));
-                tran.setToStatus(Long.valueOf(changeItem.getString("newvalue")));
-                tran.setStartAt(tsStartDate);
+            while ((changeItem = changeItems.next()) != null) {
+                if (rows == maxHistory) {
+                    log.warn(
+                            "Change History of issue " + issue.getKey() + " has more than " + maxHistory +
+                            " status changes, its transitions summary is approximate"
+                    );
 
-                retList.add(tran);
+                    return true;
+                }
+
+                // Each row contains the change group (author, created) and one status change item.
+                Timestamp changedAt = changeItem.getTimestamp("created");
+
+                boolean next = handler.statusChanged(
+                        changeItem.getString("oldvalue"), changeItem.getString("newvalue"),
+                        changeItem.getString("author"), changedAt, startAt
+                );
+
+                if (!next) {
+                    break;
+                }
 
                 // It is used to calculate the duration of the next transition.
-                tsStartDate = new Timestamp(changeGroup.getTimestamp("created").getTime());
+                startAt = changedAt;
+                rows++;
             }
+        } finally {
+            changeItems.close();
         }
 
-        return retList;
+        return false;
+    }
+
+    /**
+     * Converts stored aggregates into Transition Summaries. Rows pointing to statuses which
+     * were removed meanwhile are merged, in the same way the Change History is summarized.
+     */
+    private List<TransitionSummary> toTransitionSummaries(TransitionAggregateEntity[] aggregates, boolean approximate) {
+        TransitionSummaryAggregator aggregator = new TransitionSummaryAggregator(newStatusLookup(), userFormatter);
+
+        for (TransitionAggregateEntity aggregate : aggregates) {
+            Date lastUpdate = aggregate.getLastUpdate();
+
+            aggregator.get(aggregate.getFromStatusId(), aggregate.getToStatusId()).addTransitions(
+                    aggregate.getTimes(),
+                    aggregate.getDuration(),
+                    aggregate.getLastUpdater(),
+                    (lastUpdate != null) ? new Timestamp(lastUpdate.getTime()) : null
+            );
+        }
+
+        if (approximate) {
+            aggregator.markApproximate();
+        }
+
+        return aggregator.getSummaries();
+    }
+
+    /**
+     * Snapshot of the current statuses, so rows are resolved without asking the constants manager.
+     */
+    private StatusLookup newStatusLookup() {
+        return new StatusLookup(constantsManager.getStatusObjects(), removedStatus);
+    }
+
+    /**
+     * Receives the status changes read from the Change History.
+     */
+    private interface StatusChangeHandler {
+        /**
+         * @return false to stop reading the Change History.
+         */
+        boolean statusChanged(String fromStatusId, String toStatusId,
+                           String changedBy, Timestamp changedAt, Timestamp startAt);
     }
 }
@@ -17,19 +17,23 @@ import java.util.Map;
  * @author Gustavo Martin
  *
  * This is a valid Action, that it allows to visualize the Transition Summaries.
+ * The executions of each transition are not rendered, the tab loads them on demand.
  */
 public class TransitionSummaryAction extends AbstractIssueAction {
     protected final IssueTabPanelModuleDescriptor descriptor;
+    protected final String issueKey;
     protected List<TransitionSummary> tranSummaries;
     protected Timestamp timePerformed;
     protected final UserManager userManager;
 
     /**
+     * @param issueKey the issue, used to load the executions of its transitions.
      * @param tranSummaries List containing TransitionSummary objects.
      */
-    public TransitionSummaryAction(List<TransitionSummary> tranSummaries, IssueTabPanelModuleDescriptor descriptor, UserManager userManager){
+    public TransitionSummaryAction(String issueKey, List<TransitionSummary> tranSummaries, IssueTabPanelModuleDescriptor descriptor, UserManager userManager){
         super(descriptor);
 
+        this.issueKey = issueKey;
         this.tranSummaries = tranSummaries;
         this.descriptor = descriptor;
         this.timePerformed = new Timestamp(Calendar.getInstance().getTimeInMillis());
@@ -45,6 +49,23 @@ public class TransitionSummaryAction extends AbstractIssueAction {
         return tranSummaries;
     }
 
+    public String getIssueKey() {
+        return issueKey;
+    }
+
+    /**
+     * @return true if the Change History was too long, and the summaries are approximate.
+     */
+    public boolean isApproximate() {
+        for (TransitionSummary summary : tranSummaries) {
+            if (summary.isApproximate()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /* (non-Javadoc)
      * @see com.atlassian.jira.issue.action.IssueAction#getTimePerformed()
      */
@@ -62,7 +62,7 @@ public class TransitionsSummaryTabPanel implements IssueTabPanel {
         } else {
             Collections.sort(transitions, new TransitionSummaryComparator());
 
-            retList.add(new TransitionSummaryAction(transitions, descriptor, userManager));
+            retList.add(new TransitionSummaryAction(issue.getKey(), transitions, descriptor, userManager));
         }
 
         return retList;
@@ -0,0 +1,84 @@
+package com.googlecode.jsu.transitionssummary.report;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of durations, kept as primitives, which computes their average,
+ * median and percentiles. It is not thread safe.
+ */
+public class DurationSamples {
+    private long[] samples = new long[16];
+    private int size = 0;
+    private long total = 0;
+    private long executions = 0;
+    private boolean sorted = true;
+
+    /**
+     * @param duration the time spent by one issue.
+     * @param times how many times the issue executed the transition.
+     */
+    public void add(long duration, int times) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+
+        sorted = sorted && ((size == 0) || (samples[size - 1] <= duration));
+        samples[size++] = duration;
+        total += duration;
+        executions += times;
+    }
+
+    /**
+     * Adds all samples of other buffer.
+     */
+    public void addAll(DurationSamples other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(size + other.size, size * 2));
+        }
+
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+
+        size += other.size;
+        total += other.total;
+        executions += other.executions;
+        sorted = false;
+    }
+
+    /**
+     * @return how many durations were added.
+     */
+    public int getCount() {
+        return size;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getAverage() {
+        return (size > 0) ? total / size : 0;
+    }
+
+    public long getMedian() {
+        return getPercentile(50);
+    }
+
+    /**
+     * @param percentile between 1 and 100.
+     * @return the nearest rank percentile of all durations.
+     */
+    public long getPercentile(int percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        if (!sorted) {
+            Arrays.sort(samples, 0, size);
+            sorted = true;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+
+        return samples[Math.min(Math.max(rank, 1), size) - 1];
+    }
+}
@@ -0,0 +1,420 @@
+package com.googlecode.jsu.transitionssummary.report;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.crowd.embedded.api.User;
+import com.atlassian.jira.bc.issue.search.SearchService;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.search.SearchException;
+import com.atlassian.jira.issue.search.SearchResults;
+import com.atlassian.jira.issue.status.Status;
+import com.atlassian.jira.jql.builder.JqlQueryBuilder;
+import com.atlassian.jira.web.bean.PagerFilter;
+import com.atlassian.query.Query;
+import com.atlassian.query.order.SortOrder;
+import com.googlecode.jsu.transitionssummary.TransitionSummary;
+import com.googlecode.jsu.transitionssummary.TransitionsManager;
+
+/**
+ * Time in status report across many issues. For every transition (from status, to status) it
+ * computes the average, median and 95th percentile of the total time each issue spent in the
+ * source status before executing it, all executions of the transition by the issue together.
+ *
+ * Reports run as background jobs, see {@link #start(User, Query)}; the CSV is kept for
+ * {@value #RESULT_TTL_MINUTES} minutes after the job finished. Jobs run one after the other.
+ * Every user has at most one running job and keeps only the result of his last one, and at most
+ * {@value #MAX_RUNNING_JOBS} jobs of all users are running or waiting.
+ *
+ * Issues are searched in chunks of {@value #CHUNK_SIZE}, ordered by key so pages do not overlap,
+ * and each chunk is summarized by a fixed pool of {@value #THREADS_PROPERTY} threads (default
+ * {@value #DEFAULT_THREADS}). At most two chunks per thread are pending, so only one duration per
+ * issue and transition is kept in memory.
+ */
+public class TimeInStatusReport implements InitializingBean, DisposableBean {
+    public static final String THREADS_PROPERTY = "jsu.transitionssummary.report.threads";
+    public static final int DEFAULT_THREADS = 2;
+
+    private static final Logger log = LoggerFactory.getLogger(TimeInStatusReport.class);
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_RUNNING_JOBS = 5;
+    private static final int RESULT_TTL_MINUTES = 10;
+    private static final String CSV_HEADER =
+            "From Status,To Status,Issues,Executions," +
+            "Average per Issue (ms),Median per Issue (ms),95th Percentile per Issue (ms)\r\n";
+
+    private final SearchService searchService;
+    private final TransitionsManager transitionsManager;
+    private final int threads;
+    private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<String, Job>();
+
+    private ExecutorService jobExecutor;
+    private ExecutorService executor;
+
+    public TimeInStatusReport(SearchService searchService, TransitionsManager transitionsManager) {
+        this.searchService = searchService;
+        this.transitionsManager = transitionsManager;
+        this.threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS));
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        jobExecutor = Executors.newSingleThreadExecutor(new ReportThreadFactory("jsu-time-in-status-job-"));
+        executor = Executors.newFixedThreadPool(threads, new ReportThreadFactory("jsu-time-in-status-report-"));
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+
+        jobs.clear();
+    }
+
+    /**
+     * @param projectKey the project to report on.
+     * @return the query of all issues in the project.
+     */
+    public Query getProjectQuery(String projectKey) {
+        return JqlQueryBuilder.newBuilder().where().project(projectKey).buildQuery();
+    }
+
+    /**
+     * @return the parsed JQL query.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    public Query getJqlQuery(User user, String jql) {
+        SearchService.ParseResult result = searchService.parseQuery(user, jql);
+
+        if (!result.isValid()) {
+            throw new IllegalArgumentException(
+                    "Invalid JQL query: " + result.getErrors().getErrorMessages()
+            );
+        }
+
+        return result.getQuery();
+    }
+
+    /**
+     * Starts the report of all issues matching the query in background.
+     *
+     * @param user the user running the report, only issues he can browse are included.
+     * @param query the issues to report on.
+     * @return the id of the job, to get its result with {@link #getJob(User, String)}.
+     * @throws IllegalStateException if the user has already a running job, or there are
+     *     already too many running jobs.
+     */
+    public synchronized String start(final User user, final Query query) {
+        purge();
+
+        int running = 0;
+
+        for (Job job : jobs.values()) {
+            if (!job.isFinished()) {
+                if (job.userName.equals(user.getName())) {
+                    throw new IllegalStateException("A time in status report is already running, wait for it to finish");
+                }
+
+                running++;
+            }
+        }
+
+        if (running >= MAX_RUNNING_JOBS) {
+            throw new IllegalStateException("Too many time in status reports, try again later");
+        }
+
+        // Only the result of the last job of the user is kept.
+        for (Iterator<Job> i = jobs.values().iterator(); i.hasNext();) {
+            if (i.next().userName.equals(user.getName())) {
+                i.remove();
+            }
+        }
+
+        final Job job = new Job(user.getName());
+
+        jobs.put(job.id, job);
+
+        jobExecutor.submit(new Runnable() {
+            public void run() {
+                try {
+                    StringWriter csv = new StringWriter();
+
+                    writeCsv(compute(user, query), csv);
+
+                    job.finish(csv.toString(), null);
+                } catch (Exception e) {
+                    log.error("Unable to compute time in status report", e);
+
+                    job.finish(null, "Unable to compute time in status report: " + e.getMessage());
+                }
+            }
+        });
+
+        return job.id;
+    }
+
+    /**
+     * @param user the user asking for the job.
+     * @param id the id given by {@link #start(User, Query)}.
+     * @return the job, null if there is none with this id started by the user.
+     */
+    public Job getJob(User user, String id) {
+        purge();
+
+        Job job = (id != null) ? jobs.get(id) : null;
+
+        return ((job != null) && job.userName.equals(user.getName())) ? job : null;
+    }
+
+    /**
+     * Drops the jobs finished before the time their result is kept.
+     */
+    private void purge() {
+        long limit = System.currentTimeMillis() - RESULT_TTL_MINUTES * 60000L;
+
+        for (Iterator<Job> i = jobs.values().iterator(); i.hasNext();) {
+            Job job = i.next();
+
+            if (job.isFinished() && (job.finishedAt < limit)) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Writes the report as CSV.
+     */
+    private static void writeCsv(Map<String, TransitionSamples> report, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+
+        for (TransitionSamples transition : report.values()) {
+            DurationSamples samples = transition.samples;
+
+            out.write(
+                    escape(transition.fromStatus) + "," + escape(transition.toStatus) + "," +
+                    samples.getCount() + "," + samples.getExecutions() + "," +
+                    samples.getAverage() + "," + samples.getMedian() + "," +
+                    samples.getPercentile(95) + "\r\n"
+            );
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Searches matching issues page by page, while pages are summarized in background.
+     */
+    private Map<String, TransitionSamples> compute(User user, Query query) throws SearchException {
+        final Map<String, TransitionSamples> report = new LinkedHashMap<String, TransitionSamples>();
+        final Semaphore pending = new Semaphore(threads * 2);
+        final List<Future<?>> chunks = new ArrayList<Future<?>>();
+        Query orderedQuery = JqlQueryBuilder.newBuilder(query).orderBy().clear().issueKey(SortOrder.ASC).buildQuery();
+
+        int start = 0;
+        int total;
+
+        try {
+            do {
+                SearchResults results = searchService.search(user, orderedQuery, new PagerFilter(start, CHUNK_SIZE));
+                final List<Issue> issues = results.getIssues();
+
+                total = results.getTotal();
+                start += CHUNK_SIZE;
+
+                if (issues.isEmpty()) {
+                    break;
+                }
+
+                pending.acquire();
+
+                chunks.add(executor.submit(new Runnable() {
+                    public void run() {
+                        try {
+                            merge(report, summarize(issues));
+                        } finally {
+                            pending.release();
+                        }
+                    }
+                }));
+            } while (start < total);
+
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            cancel(chunks);
+
+            throw new IllegalStateException("Time in status report was interrupted", e);
+        } catch (ExecutionException e) {
+            cancel(chunks);
+
+            throw new IllegalStateException("Unable to compute time in status report", e.getCause());
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Time in status report of " + total + " issues in " + chunks.size() + " chunks");
+        }
+
+        return report;
+    }
+
+    /**
+     * Summarizes a chunk of issues, reusing their stored transition summaries but
+     * storing none.
+     */
+    private Map<String, TransitionSamples> summarize(List<Issue> issues) {
+        Map<String, TransitionSamples> chunk = new HashMap<String, TransitionSamples>();
+
+        for (Issue issue : issues) {
+            for (TransitionSummary summary : transitionsManager.findTransitionSummary(issue)) {
+                TransitionSamples transition = chunk.get(summary.getId());
+
+                if (transition == null) {
+                    transition = new TransitionSamples(summary.getFromStatus(), summary.getToStatus());
+
+                    chunk.put(summary.getId(), transition);
+                }
+
+                transition.samples.add(summary.getDurationInMillis(), summary.getTimesToTransition());
+            }
+        }
+
+        return chunk;
+    }
+
+    private static void merge(Map<String, TransitionSamples> report, Map<String, TransitionSamples> chunk) {
+        synchronized (report) {
+            for (Map.Entry<String, TransitionSamples> entry : chunk.entrySet()) {
+                TransitionSamples transition = report.get(entry.getKey());
+
+                if (transition == null) {
+                    report.put(entry.getKey(), entry.getValue());
+                } else {
+                    transition.samples.addAll(entry.getValue().samples);
+                }
+            }
+        }
+    }
+
+    private static void cancel(List<Future<?>> chunks) {
+        for (Future<?> chunk : chunks) {
+            chunk.cancel(true);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if ((value.indexOf(',') < 0) && (value.indexOf('"') < 0) &&
+                (value.indexOf('\n') < 0) && (value.indexOf('\r') < 0)) {
+            return value;
+        }
+
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static final class TransitionSamples {
+        private final String fromStatus;
+        private final String toStatus;
+        private final DurationSamples samples = new DurationSamples();
+
+        private TransitionSamples(Status fromStatus, Status toStatus) {
+            this.fromStatus = fromStatus.getName();
+            this.toStatus = toStatus.getName();
+        }
+    }
+
+    /**
+     * A report running in background, and its result once finished.
+     */
+    public static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final String userName;
+        private volatile boolean finished;
+        private volatile long finishedAt;
+        private volatile String csv;
+        private volatile String error;
+
+        private Job(String userName) {
+            this.userName = userName;
+        }
+
+        private void finish(String csv, String error) {
+            this.csv = csv;
+            this.error = error;
+            this.finishedAt = System.currentTimeMillis();
+            this.finished = true;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * @return the report as CSV, null while running or if the job failed.
+         */
+        public String getCsv() {
+            return csv;
+        }
+
+        /**
+         * @return why the job failed, null while running or if it succeeded.
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private static final class ReportThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private ReportThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        }
+    }
+}
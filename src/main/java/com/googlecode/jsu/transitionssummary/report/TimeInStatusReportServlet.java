@@ -0,0 +1,155 @@
+package com.googlecode.jsu.transitionssummary.report;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.atlassian.crowd.embedded.api.User;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.xsrf.XsrfTokenGenerator;
+import com.atlassian.query.Query;
+
+/**
+ * Runs the {@link TimeInStatusReport} in background and gives its result as a CSV file.
+ *
+ * A POST with the <code>project</code> key or a <code>jql</code> query parameter starts the
+ * report and is answered with 202 and the location of the job. It must carry the XSRF token
+ * of the user, or the <code>X-Atlassian-Token: no-check</code> header for scripts. A GET with
+ * the <code>job</code> parameter is answered with 202 while the report runs, and with the CSV
+ * file once it finished.
+ */
+public class TimeInStatusReportServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final Logger log = LoggerFactory.getLogger(TimeInStatusReportServlet.class);
+    private static final int RETRY_AFTER_SECONDS = 5;
+    private static final String XSRF_HEADER = "X-Atlassian-Token";
+    private static final String XSRF_NO_CHECK = "no-check";
+
+    private final TimeInStatusReport timeInStatusReport;
+    private final JiraAuthenticationContext authenticationContext;
+    private final XsrfTokenGenerator xsrfTokenGenerator;
+
+    public TimeInStatusReportServlet(TimeInStatusReport timeInStatusReport,
+                                     JiraAuthenticationContext authenticationContext,
+                                     XsrfTokenGenerator xsrfTokenGenerator) {
+        this.timeInStatusReport = timeInStatusReport;
+        this.authenticationContext = authenticationContext;
+        this.xsrfTokenGenerator = xsrfTokenGenerator;
+    }
+
+    /* (non-Javadoc)
+     * @see javax.servlet.http.HttpServlet#doGet(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        User user = authenticationContext.getLoggedInUser();
+
+        if (user == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+
+            return;
+        }
+
+        String jobId = request.getParameter("job");
+
+        if (StringUtils.isBlank(jobId)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Parameter job is required");
+
+            return;
+        }
+
+        sendJob(timeInStatusReport.getJob(user, jobId.trim()), response);
+    }
+
+    /* (non-Javadoc)
+     * @see javax.servlet.http.HttpServlet#doPost(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        User user = authenticationContext.getLoggedInUser();
+
+        if (user == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+
+            return;
+        }
+
+        if (!isXsrfSafe(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "XSRF check failed");
+
+            return;
+        }
+
+        String projectKey = request.getParameter("project");
+        String jql = request.getParameter("jql");
+        Query query;
+
+        try {
+            if (StringUtils.isNotBlank(projectKey)) {
+                query = timeInStatusReport.getProjectQuery(projectKey.trim());
+            } else if (StringUtils.isNotBlank(jql)) {
+                query = timeInStatusReport.getJqlQuery(user, jql);
+            } else {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Parameter project or jql is required");
+
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+
+            return;
+        }
+
+        String jobId;
+
+        try {
+            jobId = timeInStatusReport.start(user, query);
+        } catch (IllegalStateException e) {
+            response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.setHeader("Location", request.getRequestURI() + "?job=" + jobId);
+        response.setContentType("text/plain; charset=UTF-8");
+        response.getWriter().write(jobId);
+    }
+
+    private boolean isXsrfSafe(HttpServletRequest request) {
+        if (XSRF_NO_CHECK.equalsIgnoreCase(request.getHeader(XSRF_HEADER))) {
+            return true;
+        }
+
+        return xsrfTokenGenerator.validateToken(
+                request, request.getParameter(XsrfTokenGenerator.TOKEN_WEB_PARAMETER_KEY)
+        );
+    }
+
+    private void sendJob(TimeInStatusReport.Job job, HttpServletResponse response) throws IOException {
+        if (job == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such time in status report");
+        } else if (!job.isFinished()) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        } else if (job.getCsv() == null) {
+            log.warn("Time in status report failed: " + job.getError());
+
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, job.getError());
+        } else {
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"time-in-status.csv\"");
+            response.getWriter().write(job.getCsv());
+        }
+    }
+}
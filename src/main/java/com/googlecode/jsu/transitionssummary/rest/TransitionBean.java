@@ -0,0 +1,60 @@
+package com.googlecode.jsu.transitionssummary.rest;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * One execution of a transition, as it is sent to the Transitions Summary tab.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class TransitionBean {
+    @XmlElement
+    private String changedBy;
+
+    @XmlElement
+    private String changedByDisplayName;
+
+    @XmlElement
+    private String changedAt;
+
+    @XmlElement
+    private long durationInMillis;
+
+    @XmlElement
+    private String duration;
+
+    public TransitionBean() {
+    }
+
+    public TransitionBean(String changedBy, String changedByDisplayName, String changedAt,
+                          long durationInMillis, String duration) {
+        this.changedBy = changedBy;
+        this.changedByDisplayName = changedByDisplayName;
+        this.changedAt = changedAt;
+        this.durationInMillis = durationInMillis;
+        this.duration = duration;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    public String getChangedByDisplayName() {
+        return changedByDisplayName;
+    }
+
+    public String getChangedAt() {
+        return changedAt;
+    }
+
+    public long getDurationInMillis() {
+        return durationInMillis;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+}
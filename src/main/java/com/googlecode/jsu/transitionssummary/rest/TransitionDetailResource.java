@@ -0,0 +1,102 @@
+package com.googlecode.jsu.transitionssummary.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.atlassian.crowd.embedded.api.User;
+import com.atlassian.jira.datetime.DateTimeFormatter;
+import com.atlassian.jira.datetime.DateTimeFormatterFactory;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueManager;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.PermissionManager;
+import com.atlassian.jira.security.Permissions;
+import com.atlassian.jira.user.util.UserManager;
+import com.googlecode.jsu.transitionssummary.Transition;
+import com.googlecode.jsu.transitionssummary.TransitionPage;
+import com.googlecode.jsu.transitionssummary.TransitionSummary;
+import com.googlecode.jsu.transitionssummary.TransitionsManager;
+
+/**
+ * Executions of one transition of an issue, page by page. The Transitions Summary tab
+ * only renders the summaries, and asks for them when a summary is expanded.
+ */
+@Path("/transitions")
+@Produces(MediaType.APPLICATION_JSON)
+public class TransitionDetailResource {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final IssueManager issueManager;
+    private final PermissionManager permissionManager;
+    private final JiraAuthenticationContext authenticationContext;
+    private final UserManager userManager;
+    private final DateTimeFormatterFactory dateTimeFormatterFactory;
+    private final TransitionsManager transitionsManager;
+
+    public TransitionDetailResource(IssueManager issueManager,
+                                    PermissionManager permissionManager,
+                                    JiraAuthenticationContext authenticationContext,
+                                    UserManager userManager,
+                                    DateTimeFormatterFactory dateTimeFormatterFactory,
+                                    TransitionsManager transitionsManager) {
+        this.issueManager = issueManager;
+        this.permissionManager = permissionManager;
+        this.authenticationContext = authenticationContext;
+        this.userManager = userManager;
+        this.dateTimeFormatterFactory = dateTimeFormatterFactory;
+        this.transitionsManager = transitionsManager;
+    }
+
+    @GET
+    @Path("/{issueKey}")
+    public Response getTransitions(@PathParam("issueKey") String issueKey,
+                                   @QueryParam("from") String fromStatusId,
+                                   @QueryParam("to") String toStatusId,
+                                   @QueryParam("start") @DefaultValue("0") int start,
+                                   @QueryParam("max") @DefaultValue("20") int max) {
+        User user = authenticationContext.getLoggedInUser();
+        Issue issue = issueManager.getIssueObject(issueKey);
+
+        if ((issue == null) || !permissionManager.hasPermission(Permissions.BROWSE, issue, user)) {
+            return Response.status((user == null) ? Response.Status.UNAUTHORIZED : Response.Status.NOT_FOUND).build();
+        }
+
+        if ((fromStatusId == null) || (toStatusId == null)) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        TransitionPage page = transitionsManager.getTransitions(
+                issue, fromStatusId, toStatusId,
+                Math.max(start, 0), Math.min(Math.max(max, 1), MAX_PAGE_SIZE)
+        );
+
+        // Only the requested page is formatted.
+        DateTimeFormatter userFormatter = dateTimeFormatterFactory.formatter().forLoggedInUser();
+        List<TransitionBean> transitions = new ArrayList<TransitionBean>(page.getTransitions().size());
+
+        for (Transition tran : page.getTransitions()) {
+            User changedBy = (tran.getChangedBy() != null) ? userManager.getUserObject(tran.getChangedBy()) : null;
+
+            transitions.add(new TransitionBean(
+                    tran.getChangedBy(),
+                    (changedBy != null) ? changedBy.getDisplayName() : tran.getChangedBy(),
+                    userFormatter.format(tran.getChangedAt()),
+                    tran.getDurationInMillis(),
+                    TransitionSummary.formatDuration(tran.getDurationInMillis())
+            ));
+        }
+
+        return Response.ok(
+                new TransitionPageBean(page.getStart(), page.isMore(), page.isApproximate(), transitions)
+        ).build();
+    }
+}
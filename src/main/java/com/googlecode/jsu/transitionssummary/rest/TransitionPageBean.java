@@ -0,0 +1,53 @@
+package com.googlecode.jsu.transitionssummary.rest;
+
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A page of the executions of one transition.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class TransitionPageBean {
+    @XmlElement
+    private int start;
+
+    @XmlElement
+    private boolean more;
+
+    @XmlElement
+    private boolean approximate;
+
+    @XmlElement
+    private List<TransitionBean> transitions;
+
+    public TransitionPageBean() {
+    }
+
+    public TransitionPageBean(int start, boolean more, boolean approximate, List<TransitionBean> transitions) {
+        this.start = start;
+        this.more = more;
+        this.approximate = approximate;
+        this.transitions = transitions;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public List<TransitionBean> getTransitions() {
+        return transitions;
+    }
+}
@@ -0,0 +1,27 @@
+package com.googlecode.jsu.transitionssummary.store;
+
+import java.util.Date;
+
+import net.java.ao.Entity;
+import net.java.ao.schema.Indexed;
+import net.java.ao.schema.Table;
+
+/**
+ * Marks an issue whose transition aggregates were already built, and keeps the moment
+ * it entered its current status. The duration of the next transition is measured from there.
+ */
+@Table("TRANS_ISSUE")
+public interface IssueTransitionsEntity extends Entity {
+    @Indexed
+    long getIssueId();
+    void setIssueId(long issueId);
+
+    Date getLastStatusChange();
+    void setLastStatusChange(Date lastStatusChange);
+
+    /**
+     * @return true if the Change History was too long, and only its beginning was summarized.
+     */
+    boolean isTruncated();
+    void setTruncated(boolean truncated);
+}
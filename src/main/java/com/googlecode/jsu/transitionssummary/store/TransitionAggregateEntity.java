@@ -0,0 +1,35 @@
+package com.googlecode.jsu.transitionssummary.store;
+
+import java.util.Date;
+
+import net.java.ao.Entity;
+import net.java.ao.schema.Indexed;
+import net.java.ao.schema.Table;
+
+/**
+ * Persisted summary of all executions of one transition (from status, to status) for an issue.
+ */
+@Table("TRANS_AGGREGATE")
+public interface TransitionAggregateEntity extends Entity {
+    @Indexed
+    long getIssueId();
+    void setIssueId(long issueId);
+
+    String getFromStatusId();
+    void setFromStatusId(String fromStatusId);
+
+    String getToStatusId();
+    void setToStatusId(String toStatusId);
+
+    int getTimes();
+    void setTimes(int times);
+
+    long getDuration();
+    void setDuration(long duration);
+
+    String getLastUpdater();
+    void setLastUpdater(String lastUpdater);
+
+    Date getLastUpdate();
+    void setLastUpdate(Date lastUpdate);
+}
@@ -0,0 +1,180 @@
+package com.googlecode.jsu.transitionssummary.store;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.ofbiz.core.entity.GenericValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.jira.config.properties.ApplicationProperties;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueManager;
+import com.atlassian.jira.ofbiz.OfBizDelegator;
+import com.atlassian.jira.ofbiz.OfBizListIterator;
+import com.googlecode.jsu.transitionssummary.TransitionsManager;
+
+/**
+ * Background job which builds the stored transition summaries for all existing issues.
+ * It runs some time after the plugin was started, until it completes once. Issues that are
+ * already summarized are skipped without being loaded, so an interrupted backfill resumes
+ * where it stopped after a restart.
+ *
+ * Set the system property {@value #DISABLED_PROPERTY} to true for not running it. Issues
+ * are then summarized the first time their Transitions Summary tab is opened.
+ */
+public class TransitionSummaryBackfill implements InitializingBean, DisposableBean {
+    public static final String DISABLED_PROPERTY = "jsu.transitionssummary.backfill.disabled";
+
+    /** Application option set once all existing issues were summarized. */
+    static final String COMPLETED_OPTION = "jsu.transitionssummary.backfill.completed";
+
+    private static final Logger log = LoggerFactory.getLogger(TransitionSummaryBackfill.class);
+    private static final long START_DELAY_MINUTES = 5;
+
+    private final OfBizDelegator ofBizDelegator;
+    private final IssueManager issueManager;
+    private final TransitionsManager transitionsManager;
+    private final TransitionSummaryStore transitionSummaryStore;
+    private final ApplicationProperties applicationProperties;
+
+    private ScheduledExecutorService executor;
+
+    public TransitionSummaryBackfill(OfBizDelegator ofBizDelegator, IssueManager issueManager,
+                                     TransitionsManager transitionsManager,
+                                     TransitionSummaryStore transitionSummaryStore,
+                                     ApplicationProperties applicationProperties) {
+        this.ofBizDelegator = ofBizDelegator;
+        this.issueManager = issueManager;
+        this.transitionsManager = transitionsManager;
+        this.transitionSummaryStore = transitionSummaryStore;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        if (Boolean.getBoolean(DISABLED_PROPERTY)) {
+            log.info("Backfill of transition summaries is disabled");
+
+            return;
+        }
+
+        if (applicationProperties.getOption(COMPLETED_OPTION)) {
+            log.debug("Backfill of transition summaries already completed");
+
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jsu-transitions-summary-backfill");
+
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+
+                return thread;
+            }
+        });
+
+        executor.schedule(
+                new Runnable() {
+                    public void run() {
+                        backfill();
+                    }
+                },
+                START_DELAY_MINUTES, TimeUnit.MINUTES
+        );
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Summarizes every issue which is not stored yet.
+     */
+    void backfill() {
+        long[] issueIds = getAllIssueIds();
+        long[] storedIds = transitionSummaryStore.getStoredIssueIds();
+        int stored = 0;
+        int processed = 0;
+
+        log.info(
+                "Backfill of transition summaries started for " + issueIds.length + " issues, " +
+                storedIds.length + " already summarized"
+        );
+
+        for (long issueId : issueIds) {
+            // Both lists are sorted, so summarized issues are skipped with a merge.
+            while ((stored < storedIds.length) && (storedIds[stored] < issueId)) {
+                stored++;
+            }
+
+            if ((stored < storedIds.length) && (storedIds[stored] == issueId)) {
+                continue;
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Backfill of transition summaries interrupted after " + processed + " issues");
+
+                return;
+            }
+
+            try {
+                Issue issue = issueManager.getIssueObject(issueId);
+
+                if (issue != null) {
+                    transitionsManager.backfill(issue);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to summarize transitions of issue with id " + issueId, e);
+            }
+
+            processed++;
+        }
+
+        applicationProperties.setOption(COMPLETED_OPTION, true);
+
+        log.info("Backfill of transition summaries finished after " + processed + " issues");
+    }
+
+    /**
+     * Reads only the ids, the cursor is not kept open while issues are summarized.
+     */
+    private long[] getAllIssueIds() {
+        long[] ids = new long[1024];
+        int size = 0;
+
+        OfBizListIterator iterator = ofBizDelegator.findListIteratorByCondition(
+                "Issue", null, null, Arrays.asList("id"), Arrays.asList("id ASC"), null
+        );
+
+        try {
+            GenericValue issue;
+
+            while ((issue = iterator.next()) != null) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+
+                ids[size++] = issue.getLong("id");
+            }
+        } finally {
+            iterator.close();
+        }
+
+        return Arrays.copyOf(ids, size);
+    }
+}
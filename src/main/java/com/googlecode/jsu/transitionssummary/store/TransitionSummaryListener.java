@@ -0,0 +1,93 @@
+package com.googlecode.jsu.transitionssummary.store;
+
+import java.util.List;
+
+import org.ofbiz.core.entity.GenericEntityException;
+import org.ofbiz.core.entity.GenericValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.issue.IssueEvent;
+import com.atlassian.jira.event.type.EventType;
+import com.atlassian.jira.issue.Issue;
+import com.googlecode.jsu.transitionssummary.TransitionsManager;
+
+/**
+ * Keeps the stored transition summaries up to date, adding every committed status change.
+ * Cached summaries are dropped on any event of the issue.
+ */
+public class TransitionSummaryListener implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(TransitionSummaryListener.class);
+
+    private final EventPublisher eventPublisher;
+    private final TransitionsManager transitionsManager;
+
+    public TransitionSummaryListener(EventPublisher eventPublisher, TransitionsManager transitionsManager) {
+        this.eventPublisher = eventPublisher;
+        this.transitionsManager = transitionsManager;
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+    }
+
+    @EventListener
+    public void onIssueEvent(IssueEvent event) {
+        final Issue issue = event.getIssue();
+
+        if ((issue == null) || (issue.getId() == null)) {
+            return;
+        }
+
+        transitionsManager.invalidate(issue.getId());
+
+        if (EventType.ISSUE_DELETED_ID.equals(event.getEventTypeId())) {
+            transitionsManager.removeTransitionSummary(issue.getId());
+
+            return;
+        }
+
+        final GenericValue changeLog = event.getChangeLog();
+
+        if (changeLog == null) {
+            return;
+        }
+
+        List<GenericValue> changeItems;
+
+        try {
+            changeItems = changeLog.getRelated("ChildChangeItem");
+        } catch (GenericEntityException e) {
+            log.error("Unable to read change items of issue " + issue.getKey(), e);
+
+            return;
+        }
+
+        for (GenericValue changeItem : changeItems) {
+            if ("status".equals(changeItem.getString("field")) &&
+                    "jira".equalsIgnoreCase(changeItem.getString("fieldtype"))) {
+                transitionsManager.addStatusChange(
+                        issue,
+                        changeItem.getString("oldvalue"),
+                        changeItem.getString("newvalue"),
+                        changeLog.getString("author"),
+                        changeLog.getTimestamp("created")
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.googlecode.jsu.transitionssummary.store;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import net.java.ao.DBParam;
+import net.java.ao.Query;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.googlecode.jsu.transitionssummary.TransitionSummary;
+
+/**
+ * Plugin owned storage of transition summaries. Keeps one row per issue and transition
+ * (from status, to status) with how many times it was executed, the total time spent in
+ * the source status and who/when executed it the last time.
+ */
+public class TransitionSummaryStore {
+    // Active Objects creates quoted upper case identifiers, unquoted ones are folded to lower case by PostgreSQL.
+    private static final String BY_ISSUE = "\"ISSUE_ID\" = ?";
+    private static final String BY_TRANSITION =
+            "\"ISSUE_ID\" = ? AND \"FROM_STATUS_ID\" = ? AND \"TO_STATUS_ID\" = ?";
+    private static final String ORDER_BY_ID = "\"ID\"";
+    private static final String ORDER_BY_ISSUE = "\"ISSUE_ID\"";
+
+    /** Number of summarized issues read at once by {@link #getStoredIssueIds()}. */
+    private static final int ISSUE_PAGE_SIZE = 1000;
+
+    /** Number of lock stripes used to serialize changes of the same issue. */
+    private static final int LOCK_STRIPES = 64;
+
+    private final ActiveObjects ao;
+    private final Object[] issueLocks = new Object[LOCK_STRIPES];
+
+    public TransitionSummaryStore(ActiveObjects ao) {
+        this.ao = ao;
+
+        for (int i = 0; i < issueLocks.length; i++) {
+            issueLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return true if the summaries of the issue were already built.
+     */
+    public boolean isStored(long issueId) {
+        return getIssue(issueId) != null;
+    }
+
+    /**
+     * @return the summarized issue, or null if its summaries were never built.
+     */
+    public IssueTransitionsEntity getIssue(long issueId) {
+        IssueTransitionsEntity[] found = ao.find(
+                IssueTransitionsEntity.class,
+                Query.select().where(BY_ISSUE, issueId)
+        );
+
+        return (found.length > 0) ? found[0] : null;
+    }
+
+    /**
+     * @return ids of all summarized issues, in ascending order.
+     */
+    public long[] getStoredIssueIds() {
+        long[] ids = new long[1024];
+        int size = 0;
+        IssueTransitionsEntity[] page;
+
+        do {
+            page = ao.find(
+                    IssueTransitionsEntity.class,
+                    Query.select().order(ORDER_BY_ISSUE).offset(size).limit(ISSUE_PAGE_SIZE)
+            );
+
+            for (IssueTransitionsEntity issue : page) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+
+                ids[size++] = issue.getIssueId();
+            }
+        } while (page.length == ISSUE_PAGE_SIZE);
+
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * @return the stored aggregates of the issue, in the order they were created.
+     */
+    public TransitionAggregateEntity[] getAggregates(long issueId) {
+        return ao.find(
+                TransitionAggregateEntity.class,
+                Query.select().where(BY_ISSUE, issueId).order(ORDER_BY_ID)
+        );
+    }
+
+    /**
+     * Replaces all stored aggregates of the issue.
+     *
+     * @param issueId the issue.
+     * @param lastStatusChange when the issue entered its current status, or was created if it never
+     *                         changed of status. For a truncated Change History it is the last change
+     *                         of the whole history, not the last one summarized.
+     * @param summaries the summaries computed from the Change History. If they are approximate,
+     *                  the issue is stored as truncated.
+     */
+    public void save(final long issueId, final Timestamp lastStatusChange, final List<TransitionSummary> summaries) {
+        synchronized (getIssueLock(issueId)) {
+            ao.executeInTransaction(new TransactionCallback<Void>() {
+                public Void doInTransaction() {
+                    saveInTransaction(issueId, lastStatusChange, summaries);
+
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void saveInTransaction(long issueId, Timestamp lastStatusChange, List<TransitionSummary> summaries) {
+        deleteAll(issueId);
+
+        boolean truncated = false;
+
+        for (TransitionSummary summary : summaries) {
+            TransitionAggregateEntity aggregate = ao.create(
+                    TransitionAggregateEntity.class,
+                    new DBParam("ISSUE_ID", issueId),
+                    new DBParam("FROM_STATUS_ID", summary.getFromStatus().getId()),
+                    new DBParam("TO_STATUS_ID", summary.getToStatus().getId())
+            );
+
+            aggregate.setTimes(summary.getTimesToTransition());
+            aggregate.setDuration(summary.getDurationInMillis());
+            aggregate.setLastUpdater(summary.getLastUpdater());
+            aggregate.setLastUpdate(summary.getLastUpdate());
+            aggregate.save();
+
+            truncated |= summary.isApproximate();
+        }
+
+        IssueTransitionsEntity issue = ao.create(
+                IssueTransitionsEntity.class,
+                new DBParam("ISSUE_ID", issueId)
+        );
+
+        issue.setLastStatusChange(lastStatusChange);
+        issue.setTruncated(truncated);
+        issue.save();
+    }
+
+    /**
+     * Adds one executed transition to the stored aggregates of the issue.
+     *
+     * @return false if the issue was never summarized, and nothing was stored.
+     */
+    public boolean addTransition(
+            final long issueId, final String fromStatusId, final String toStatusId,
+            final String changedBy, final Timestamp changedAt
+    ) {
+        synchronized (getIssueLock(issueId)) {
+            return ao.executeInTransaction(new TransactionCallback<Boolean>() {
+                public Boolean doInTransaction() {
+                    return addTransitionInTransaction(issueId, fromStatusId, toStatusId, changedBy, changedAt);
+                }
+            });
+        }
+    }
+
+    private boolean addTransitionInTransaction(
+            long issueId, String fromStatusId, String toStatusId, String changedBy, Timestamp changedAt
+    ) {
+        IssueTransitionsEntity issue = getIssue(issueId);
+
+        if (issue == null) {
+            return false;
+        }
+
+        Date startAt = issue.getLastStatusChange();
+
+        if ((startAt != null) && !changedAt.after(startAt)) {
+            // Already counted when the issue was summarized from its Change History.
+            return true;
+        }
+
+        TransitionAggregateEntity[] found = ao.find(
+                TransitionAggregateEntity.class,
+                Query.select().where(BY_TRANSITION, issueId, fromStatusId, toStatusId)
+        );
+        TransitionAggregateEntity aggregate;
+
+        if (found.length > 0) {
+            aggregate = found[0];
+        } else {
+            aggregate = ao.create(
+                    TransitionAggregateEntity.class,
+                    new DBParam("ISSUE_ID", issueId),
+                    new DBParam("FROM_STATUS_ID", fromStatusId),
+                    new DBParam("TO_STATUS_ID", toStatusId)
+            );
+        }
+
+        aggregate.setTimes(aggregate.getTimes() + 1);
+
+        if (startAt != null) {
+            aggregate.setDuration(aggregate.getDuration() + changedAt.getTime() - startAt.getTime());
+        }
+
+        aggregate.setLastUpdater(changedBy);
+        aggregate.setLastUpdate(changedAt);
+        aggregate.save();
+
+        issue.setLastStatusChange(changedAt);
+        issue.save();
+
+        return true;
+    }
+
+    /**
+     * Removes everything stored for the issue.
+     */
+    public void remove(final long issueId) {
+        synchronized (getIssueLock(issueId)) {
+            ao.executeInTransaction(new TransactionCallback<Void>() {
+                public Void doInTransaction() {
+                    deleteAll(issueId);
+
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void deleteAll(long issueId) {
+        ao.delete(ao.find(TransitionAggregateEntity.class, Query.select().where(BY_ISSUE, issueId)));
+        ao.delete(ao.find(IssueTransitionsEntity.class, Query.select().where(BY_ISSUE, issueId)));
+    }
+
+    /**
+     * Changes of the same issue are serialized, so two status changes can not both miss the
+     * aggregate of a transition and create it twice. Callers which check if an issue is stored
+     * and then save it hold the same lock around both.
+     */
+    public Object getIssueLock(long issueId) {
+        return issueLocks[(int) (issueId % LOCK_STRIPES)];
+    }
+}
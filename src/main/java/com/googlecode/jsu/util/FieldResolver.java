@@ -0,0 +1,167 @@
+package com.googlecode.jsu.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.atlassian.jira.issue.fields.Field;
+import com.atlassian.jira.issue.fields.FieldManager;
+
+/**
+ * Resolves field keys, and lists of field keys as stored in workflow arguments, to fields.
+ *
+ * System fields and split arguments are kept in an index which is replaced on
+ * {@link ClearCacheEvent} and after {@value #TTL_PROPERTY} seconds (default {@value #DEFAULT_TTL}).
+ * Custom fields are always asked to the field manager, which caches them itself, because JIRA
+ * replaces custom field objects when their contexts or configuration change.
+ */
+public class FieldResolver implements InitializingBean, DisposableBean {
+    public static final String TTL_PROPERTY = "jsu.fields.cache.ttl";
+    public static final int DEFAULT_TTL = 300;
+
+    private static final Logger log = LoggerFactory.getLogger(FieldResolver.class);
+    private static final int MAX_ARGUMENTS = 1000;
+
+    private final EventPublisher eventPublisher;
+    private final FieldManager fieldManager;
+    private final long ttlMillis;
+
+    private volatile Index index;
+
+    public FieldResolver(EventPublisher eventPublisher, FieldManager fieldManager) {
+        this.eventPublisher = eventPublisher;
+        this.fieldManager = fieldManager;
+        this.ttlMillis = Math.max(0, Integer.getInteger(TTL_PROPERTY, DEFAULT_TTL)) * 1000L;
+        this.index = new Index(System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * @return the field (or custom field) with the given key.
+     * @throws IllegalArgumentException if the field does not exist.
+     */
+    public Field getField(String key) {
+        Field field = findField(key);
+
+        if (field == null) {
+            throw new IllegalArgumentException("Unable to find field '" + key + "'");
+        }
+
+        return field;
+    }
+
+    /**
+     * @param argument field keys separated by {@link WorkflowUtils#SPLITTER}.
+     * @return the fields in the order of the argument, fields which do not exist are left out.
+     */
+    public Field[] getFields(String argument) {
+        Index current = currentIndex();
+        String[] keys = current.arguments.get(argument);
+
+        if (keys == null) {
+            keys = argument.split("\\Q" + WorkflowUtils.SPLITTER + "\\E");
+
+            if (current.arguments.size() >= MAX_ARGUMENTS) {
+                current.arguments.clear();
+            }
+
+            current.arguments.put(argument, keys);
+        }
+
+        List<Field> fieldList = new ArrayList<Field>(keys.length);
+
+        for (String key : keys) {
+            Field field = findField(key);
+
+            if (field != null) {
+                fieldList.add(field);
+            }
+        }
+
+        return fieldList.toArray(new Field[fieldList.size()]);
+    }
+
+    private Field findField(String key) {
+        if (key == null) {
+            return null;
+        }
+
+        if (fieldManager.isCustomField(key)) {
+            return fieldManager.getCustomField(key);
+        }
+
+        Index current = currentIndex();
+        Field field = current.fields.get(key);
+
+        if (field == null) {
+            field = fieldManager.getField(key);
+
+            // Unknown keys are not kept.
+            if (field != null) {
+                current.fields.put(key, field);
+            }
+        }
+
+        return field;
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+
+        if (current.expires <= System.currentTimeMillis()) {
+            current = new Index(System.currentTimeMillis() + ttlMillis);
+            index = current;
+        }
+
+        return current;
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Drops all resolved system fields and split arguments.
+     */
+    public void invalidate() {
+        index = new Index(System.currentTimeMillis() + ttlMillis);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Field index invalidated");
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        invalidate();
+    }
+
+    private static final class Index {
+        private final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<String, Field>();
+        private final ConcurrentMap<String, String[]> arguments = new ConcurrentHashMap<String, String[]>();
+        private final long expires;
+
+        private Index(long expires) {
+            this.expires = expires;
+        }
+    }
+}
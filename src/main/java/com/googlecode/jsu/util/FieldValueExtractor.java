@@ -0,0 +1,17 @@
+package com.googlecode.jsu.util;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.fields.Field;
+
+/**
+ * Reads the value of one kind of field from an issue.
+ */
+public interface FieldValueExtractor {
+    /**
+     * @param issue the issue.
+     * @param field the field, of the kind the extractor is registered for.
+     * @param asOption if set, options are returned as option, else as string.
+     * @return the value, null if there is none.
+     */
+    Object getValue(Issue issue, Field field, boolean asOption);
+}
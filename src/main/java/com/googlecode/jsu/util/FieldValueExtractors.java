@@ -0,0 +1,306 @@
+package com.googlecode.jsu.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.ofbiz.core.entity.GenericEntityException;
+import org.ofbiz.core.entity.GenericValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueFieldConstants;
+import com.atlassian.jira.issue.IssueManager;
+import com.atlassian.jira.issue.IssueRelationConstants;
+import com.atlassian.jira.issue.customfields.CustomFieldType;
+import com.atlassian.jira.issue.customfields.impl.CascadingSelectCFType;
+import com.atlassian.jira.issue.customfields.option.Option;
+import com.atlassian.jira.issue.fields.CustomField;
+import com.atlassian.jira.issue.fields.Field;
+import com.atlassian.jira.issue.fields.FieldManager;
+import com.atlassian.jira.issue.link.IssueLinkManager;
+import com.atlassian.jira.issue.worklog.WorkRatio;
+import com.atlassian.jira.util.ObjectUtils;
+
+/**
+ * Table of {@link FieldValueExtractor}s, registered by system field id and by custom field type.
+ * The extractor of a field is looked up once and kept by field id, custom field types are
+ * matched with their super classes too.
+ */
+public final class FieldValueExtractors {
+    private final Logger log = LoggerFactory.getLogger(FieldValueExtractors.class);
+
+    private final FieldManager fieldManager;
+    private final Map<String, FieldValueExtractor> systemExtractors = new HashMap<String, FieldValueExtractor>();
+    private final Map<Class<?>, FieldValueExtractor> typeExtractors = new LinkedHashMap<Class<?>, FieldValueExtractor>();
+    private final ConcurrentMap<String, FieldValueExtractor> resolved = new ConcurrentHashMap<String, FieldValueExtractor>();
+
+    FieldValueExtractors(FieldManager fieldManager, final IssueManager issueManager,
+                         final IssueLinkManager issueLinkManager) {
+        this.fieldManager = fieldManager;
+
+        register(CascadingSelectCFType.class, new FieldValueExtractor() {
+            @SuppressWarnings("unchecked")
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                Map<String, Option> entries = (Map<String, Option>) issue.getCustomFieldValue((CustomField) field);
+
+                if (entries != null) {
+                    Option parent = entries.get(CascadingSelectCFType.PARENT_KEY);
+                    Option child = entries.get(CascadingSelectCFType.CHILD_KEY);
+
+                    if (parent != null) {
+                        if (ObjectUtils.isValueSelected(child)) {
+                            return asOption ? child : child.toString();
+                        }
+
+                        final List<Option> childOptions = parent.getChildOptions();
+
+                        if ((childOptions == null) || (childOptions.isEmpty())) {
+                            return asOption ? parent : parent.toString();
+                        }
+                    }
+                }
+
+                return null;
+            }
+        });
+
+        // Collections are returned only if they have elements.
+        register(IssueFieldConstants.ATTACHMENT, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return nonEmpty(issue.getAttachments());
+            }
+        });
+        register(IssueFieldConstants.AFFECTED_VERSIONS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return nonEmpty(issue.getAffectedVersions());
+            }
+        });
+        register(IssueFieldConstants.COMMENT, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                try {
+                    return nonEmpty(issueManager.getEntitiesByIssueObject(IssueRelationConstants.COMMENTS, issue));
+                } catch (GenericEntityException e) {
+                    return null;
+                }
+            }
+        });
+        register(IssueFieldConstants.COMPONENTS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return nonEmpty(issue.getComponents());
+            }
+        });
+        register(IssueFieldConstants.FIX_FOR_VERSIONS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return nonEmpty(issue.getFixVersions());
+            }
+        });
+        register(IssueFieldConstants.SUBTASKS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return nonEmpty(issue.getSubTaskObjects());
+            }
+        });
+
+        // Not implemented, yet.
+        register(IssueFieldConstants.THUMBNAIL, NONE);
+        register(IssueFieldConstants.TIMETRACKING, NONE);
+
+        register(IssueFieldConstants.ISSUE_TYPE, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getIssueTypeObject();
+            }
+        });
+        register(IssueFieldConstants.ISSUE_LINKS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issueLinkManager.getIssueLinks(issue.getId());
+            }
+        });
+        register(IssueFieldConstants.WORKRATIO, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return String.valueOf(WorkRatio.getWorkRatio(issue));
+            }
+        });
+        register(IssueFieldConstants.ISSUE_KEY, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getKey();
+            }
+        });
+        register(IssueFieldConstants.PRIORITY, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getPriorityObject();
+            }
+        });
+        register(IssueFieldConstants.RESOLUTION, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getResolutionObject();
+            }
+        });
+        register(IssueFieldConstants.STATUS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getStatusObject();
+            }
+        });
+        register(IssueFieldConstants.PROJECT, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getProjectObject();
+            }
+        });
+        register(IssueFieldConstants.SECURITY, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getSecurityLevel();
+            }
+        });
+        register(IssueFieldConstants.TIME_ESTIMATE, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getEstimate();
+            }
+        });
+        register(IssueFieldConstants.TIME_SPENT, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getTimeSpent();
+            }
+        });
+        register(IssueFieldConstants.ASSIGNEE, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getAssigneeUser();
+            }
+        });
+        register(IssueFieldConstants.REPORTER, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getReporterUser();
+            }
+        });
+        register(IssueFieldConstants.DESCRIPTION, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getDescription();
+            }
+        });
+        register(IssueFieldConstants.ENVIRONMENT, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getEnvironment();
+            }
+        });
+        register(IssueFieldConstants.SUMMARY, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getSummary();
+            }
+        });
+        register(IssueFieldConstants.DUE_DATE, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getDueDate();
+            }
+        });
+        register(IssueFieldConstants.UPDATED, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getUpdated();
+            }
+        });
+        register(IssueFieldConstants.CREATED, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getCreated();
+            }
+        });
+        register(IssueFieldConstants.RESOLUTION_DATE, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getResolutionDate();
+            }
+        });
+        register(IssueFieldConstants.LABELS, new FieldValueExtractor() {
+            public Object getValue(Issue issue, Field field, boolean asOption) {
+                return issue.getLabels();
+            }
+        });
+    }
+
+    /**
+     * Registers the extractor of a system field.
+     */
+    public synchronized void register(String fieldId, FieldValueExtractor extractor) {
+        systemExtractors.put(fieldId, extractor);
+        resolved.clear();
+    }
+
+    /**
+     * Registers the extractor of a custom field type and its sub classes. Types registered
+     * first take precedence.
+     */
+    public synchronized void register(Class<? extends CustomFieldType> type, FieldValueExtractor extractor) {
+        typeExtractors.put(type, extractor);
+        resolved.clear();
+    }
+
+    /**
+     * @return the extractor of the field.
+     */
+    public FieldValueExtractor getExtractor(Field field) {
+        FieldValueExtractor extractor = resolved.get(field.getId());
+
+        if (extractor == null) {
+            // Resolved and kept under the lock of register, which could otherwise clear the
+            // table between both steps and leave the extractor of the previous registration.
+            synchronized (this) {
+                extractor = resolve(field);
+
+                resolved.put(field.getId(), extractor);
+            }
+        }
+
+        return extractor;
+    }
+
+    private FieldValueExtractor resolve(Field field) {
+        if (fieldManager.isCustomField(field)) {
+            CustomFieldType type = ((CustomField) field).getCustomFieldType();
+
+            if (type != null) {
+                for (Map.Entry<Class<?>, FieldValueExtractor> entry : typeExtractors.entrySet()) {
+                    if (entry.getKey().isInstance(type)) {
+                        return entry.getValue();
+                    }
+                }
+            }
+
+            // Return the CustomField value. It could be any object.
+            return CUSTOM_FIELD_VALUE;
+        }
+
+        FieldValueExtractor extractor = systemExtractors.get(field.getId());
+
+        if (extractor == null) {
+            log.warn("Issue field \"" + field.getId() + "\" is not supported.");
+
+            extractor = GENERIC_VALUE;
+        }
+
+        return extractor;
+    }
+
+    private static Object nonEmpty(Collection<?> collection) {
+        return ((collection != null) && !collection.isEmpty()) ? collection : null;
+    }
+
+    private static final FieldValueExtractor NONE = new FieldValueExtractor() {
+        public Object getValue(Issue issue, Field field, boolean asOption) {
+            return null;
+        }
+    };
+
+    private static final FieldValueExtractor CUSTOM_FIELD_VALUE = new FieldValueExtractor() {
+        public Object getValue(Issue issue, Field field, boolean asOption) {
+            return issue.getCustomFieldValue((CustomField) field);
+        }
+    };
+
+    private static final FieldValueExtractor GENERIC_VALUE = new FieldValueExtractor() {
+        public Object getValue(Issue issue, Field field, boolean asOption) {
+            GenericValue gvIssue = issue.getGenericValue();
+
+            return (gvIssue != null) ? gvIssue.get(field.getId()) : null;
+        }
+    };
+}
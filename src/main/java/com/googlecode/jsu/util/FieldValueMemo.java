@@ -0,0 +1,145 @@
+package com.googlecode.jsu.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.fields.Field;
+
+/**
+ * Field values already read during one workflow request. OSWorkflow passes the same transient
+ * variables to all conditions checked for the available transitions of an issue, and to all
+ * validators of a transition, so the memo is kept there and dies with the request.
+ *
+ * Values are kept by issue object, not by issue id: a validator sees both the issue being
+ * edited and the original issue, which have the same id but not the same values.
+ *
+ * The memo only lives while conditions and validators are checked. Once the new step of the
+ * transition is created, or a post-function of the plugin has run, post-functions may have
+ * changed the issue: values are not shared any more for the rest of the request.
+ */
+public final class FieldValueMemo {
+    /** Name of the transient variable. */
+    public static final String TRANSIENT_VAR = "jsu.fieldValueMemo";
+
+    /** Transient variable set by OSWorkflow once the new step of the transition is created. */
+    private static final String CREATED_STEP_VAR = "createdStep";
+
+    /** Kept in the transient variable once post-functions started. */
+    private static final Object CLOSED = new Object();
+
+    private final Map<Key, Object> values = new HashMap<Key, Object>();
+
+    private FieldValueMemo() {
+    }
+
+    /**
+     * @return the memo of the request, created at first call. Without transient variables, if
+     * they could not be changed, or once post-functions started, the memo is only used by the caller.
+     */
+    @SuppressWarnings("unchecked")
+    public static FieldValueMemo get(@SuppressWarnings("rawtypes") Map transientVars) {
+        if (transientVars == null) {
+            return new FieldValueMemo();
+        }
+
+        Object memo = transientVars.get(TRANSIENT_VAR);
+
+        if ((memo == CLOSED) || transientVars.containsKey(CREATED_STEP_VAR)) {
+            if (memo instanceof FieldValueMemo) {
+                close(transientVars);
+            }
+
+            return new FieldValueMemo();
+        }
+
+        if (memo instanceof FieldValueMemo) {
+            return (FieldValueMemo) memo;
+        }
+
+        FieldValueMemo result = new FieldValueMemo();
+
+        try {
+            transientVars.put(TRANSIENT_VAR, result);
+        } catch (UnsupportedOperationException e) {
+            // Read only variables, values are not shared.
+        }
+
+        return result;
+    }
+
+    /**
+     * Drops values read during the request, and stops sharing values for the rest of it. It is
+     * called by every post-function of the plugin, because post-functions change the issue.
+     */
+    public static void clear(@SuppressWarnings("rawtypes") Map transientVars) {
+        if ((transientVars != null) && (transientVars.get(TRANSIENT_VAR) != CLOSED)) {
+            close(transientVars);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void close(@SuppressWarnings("rawtypes") Map transientVars) {
+        try {
+            transientVars.put(TRANSIENT_VAR, CLOSED);
+        } catch (UnsupportedOperationException e) {
+            // Read only variables, no memo was kept there.
+        }
+    }
+
+    /**
+     * @return the value of the field, as returned by
+     * {@link WorkflowUtils#getFieldValueFromIssue(Issue, Field, boolean)} the first time.
+     */
+    public Object getFieldValue(WorkflowUtils workflowUtils, Issue issue, Field field, boolean asOption) {
+        Key key = new Key(issue, field.getId(), asOption);
+
+        if (values.containsKey(key)) {
+            return values.get(key);
+        }
+
+        Object value = workflowUtils.getFieldValueFromIssue(issue, field, asOption);
+
+        values.put(key, value);
+
+        return value;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "FieldValueMemo[" + values.size() + " values]";
+    }
+
+    private static final class Key {
+        private final Issue issue;
+        private final String fieldId;
+        private final boolean asOption;
+        private final int hash;
+
+        private Key(Issue issue, String fieldId, boolean asOption) {
+            this.issue = issue;
+            this.fieldId = fieldId;
+            this.asOption = asOption;
+            this.hash = (31 * System.identityHashCode(issue) + fieldId.hashCode()) * 2 + (asOption ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return (issue == other.issue) && (asOption == other.asOption) && fieldId.equals(other.fieldId);
+        }
+    }
+}
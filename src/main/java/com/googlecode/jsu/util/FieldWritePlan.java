@@ -0,0 +1,174 @@
+package com.googlecode.jsu.util;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.ofbiz.core.entity.GenericValue;
+
+import com.atlassian.jira.issue.IssueConstant;
+import com.atlassian.jira.issue.IssueFieldConstants;
+import com.atlassian.jira.issue.customfields.CustomFieldType;
+import com.atlassian.jira.issue.customfields.MultipleCustomFieldType;
+import com.atlassian.jira.issue.customfields.MultipleSettableCustomFieldType;
+import com.atlassian.jira.issue.customfields.impl.AbstractMultiCFType;
+import com.atlassian.jira.issue.customfields.impl.CascadingSelectCFType;
+import com.atlassian.jira.issue.customfields.impl.GenericTextCFType;
+import com.atlassian.jira.issue.customfields.impl.LabelsCFType;
+import com.atlassian.jira.issue.customfields.impl.MultiSelectCFType;
+import com.atlassian.jira.issue.customfields.impl.MultiUserCFType;
+import com.atlassian.jira.issue.customfields.impl.ProjectCFType;
+import com.atlassian.jira.issue.customfields.impl.SelectCFType;
+import com.atlassian.jira.issue.customfields.impl.UserCFType;
+import com.atlassian.jira.issue.customfields.impl.VersionCFType;
+import com.atlassian.jira.issue.customfields.option.Option;
+
+/**
+ * How values are written to one field, decided once from the field and its custom field type.
+ * The conversion of the value before it is written is decided once per class of value.
+ */
+final class FieldWritePlan {
+    /** Conversion of the value before it is written to a custom field. */
+    enum Conversion {
+        NONE, CONSTANT_NAME, SECURITY_LEVEL_NAME, OPTION_VALUE, DATE_TEXT
+    }
+
+    /** Custom field types which are written in their own way, whatever the value. */
+    enum CustomKind {
+        VERSION, PROJECT, SELECT, OTHER
+    }
+
+    /** System fields which can be written. */
+    enum SystemTarget {
+        UNSUPPORTED, NOT_IMPLEMENTED, AFFECTED_VERSIONS, COMPONENTS, FIX_FOR_VERSIONS,
+        PRIORITY, RESOLUTION, STATUS, SECURITY, ASSIGNEE, DUE_DATE, REPORTER,
+        SUMMARY, DESCRIPTION, ENVIRONMENT
+    }
+
+    private static final Map<String, SystemTarget> SYSTEM_TARGETS = new HashMap<String, SystemTarget>();
+
+    static {
+        SYSTEM_TARGETS.put(IssueFieldConstants.ATTACHMENT, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.COMMENT, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.THUMBNAIL, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.ISSUE_TYPE, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.TIMETRACKING, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.ISSUE_LINKS, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.WORKRATIO, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.ISSUE_KEY, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.SUBTASKS, SystemTarget.NOT_IMPLEMENTED);
+        SYSTEM_TARGETS.put(IssueFieldConstants.AFFECTED_VERSIONS, SystemTarget.AFFECTED_VERSIONS);
+        SYSTEM_TARGETS.put(IssueFieldConstants.COMPONENTS, SystemTarget.COMPONENTS);
+        SYSTEM_TARGETS.put(IssueFieldConstants.FIX_FOR_VERSIONS, SystemTarget.FIX_FOR_VERSIONS);
+        SYSTEM_TARGETS.put(IssueFieldConstants.PRIORITY, SystemTarget.PRIORITY);
+        SYSTEM_TARGETS.put(IssueFieldConstants.RESOLUTION, SystemTarget.RESOLUTION);
+        SYSTEM_TARGETS.put(IssueFieldConstants.STATUS, SystemTarget.STATUS);
+        SYSTEM_TARGETS.put(IssueFieldConstants.SECURITY, SystemTarget.SECURITY);
+        SYSTEM_TARGETS.put(IssueFieldConstants.ASSIGNEE, SystemTarget.ASSIGNEE);
+        SYSTEM_TARGETS.put(IssueFieldConstants.DUE_DATE, SystemTarget.DUE_DATE);
+        SYSTEM_TARGETS.put(IssueFieldConstants.REPORTER, SystemTarget.REPORTER);
+        SYSTEM_TARGETS.put(IssueFieldConstants.SUMMARY, SystemTarget.SUMMARY);
+        SYSTEM_TARGETS.put(IssueFieldConstants.DESCRIPTION, SystemTarget.DESCRIPTION);
+        SYSTEM_TARGETS.put(IssueFieldConstants.ENVIRONMENT, SystemTarget.ENVIRONMENT);
+    }
+
+    final boolean custom;
+    final SystemTarget systemTarget;
+    final CustomKind customKind;
+    final boolean dateField;
+    final boolean multipleSettable;
+    final boolean multiSelect;
+    final boolean cascadingSelect;
+    final boolean labels;
+    final boolean multiValue;
+    final boolean abstractMulti;
+    final boolean user;
+    final boolean multiUser;
+    final boolean genericText;
+
+    private final ConcurrentMap<Class<?>, Conversion> conversions = new ConcurrentHashMap<Class<?>, Conversion>();
+
+    /**
+     * Plan of a system field.
+     */
+    FieldWritePlan(String fieldId) {
+        SystemTarget target = SYSTEM_TARGETS.get(fieldId);
+
+        this.custom = false;
+        this.systemTarget = (target != null) ? target : SystemTarget.UNSUPPORTED;
+        this.customKind = CustomKind.OTHER;
+        this.dateField = false;
+        this.multipleSettable = false;
+        this.multiSelect = false;
+        this.cascadingSelect = false;
+        this.labels = false;
+        this.multiValue = false;
+        this.abstractMulti = false;
+        this.user = false;
+        this.multiUser = false;
+        this.genericText = false;
+    }
+
+    /**
+     * Plan of a custom field.
+     *
+     * @param dateField if the field holds dates, these are written as they are.
+     */
+    FieldWritePlan(CustomFieldType cfType, boolean dateField) {
+        this.custom = true;
+        this.systemTarget = SystemTarget.UNSUPPORTED;
+        this.dateField = dateField;
+
+        if (cfType instanceof VersionCFType) {
+            this.customKind = CustomKind.VERSION;
+        } else if (cfType instanceof ProjectCFType) {
+            this.customKind = CustomKind.PROJECT;
+        } else if (cfType instanceof SelectCFType) {
+            this.customKind = CustomKind.SELECT;
+        } else {
+            this.customKind = CustomKind.OTHER;
+        }
+
+        this.multipleSettable = cfType instanceof MultipleSettableCustomFieldType;
+        this.multiSelect = cfType instanceof MultiSelectCFType;
+        this.cascadingSelect = cfType instanceof CascadingSelectCFType;
+        this.labels = cfType instanceof LabelsCFType;
+        this.multiValue = (cfType instanceof AbstractMultiCFType) || (cfType instanceof MultipleCustomFieldType);
+        this.abstractMulti = cfType instanceof AbstractMultiCFType;
+        this.user = cfType instanceof UserCFType;
+        this.multiUser = cfType instanceof MultiUserCFType;
+        this.genericText = cfType instanceof GenericTextCFType;
+    }
+
+    /**
+     * @return how a value is converted before it is written to the custom field.
+     */
+    Conversion getConversion(Object value) {
+        if (value == null) {
+            return Conversion.NONE;
+        }
+
+        Class<?> valueClass = value.getClass();
+        Conversion conversion = conversions.get(valueClass);
+
+        if (conversion == null) {
+            if (value instanceof IssueConstant) {
+                conversion = Conversion.CONSTANT_NAME;
+            } else if (value instanceof GenericValue) {
+                conversion = Conversion.SECURITY_LEVEL_NAME;
+            } else if ((value instanceof Option) && !multipleSettable) {
+                conversion = Conversion.OPTION_VALUE;
+            } else if ((value instanceof Timestamp) && !dateField) {
+                conversion = Conversion.DATE_TEXT;
+            } else {
+                conversion = Conversion.NONE;
+            }
+
+            conversions.put(valueClass, conversion);
+        }
+
+        return conversion;
+    }
+}
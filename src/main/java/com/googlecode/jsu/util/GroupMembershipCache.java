@@ -0,0 +1,210 @@
+package com.googlecode.jsu.util;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.crowd.event.directory.RemoteDirectorySynchronisedEvent;
+import com.atlassian.crowd.event.group.GroupDeletedEvent;
+import com.atlassian.crowd.event.group.GroupMembershipCreatedEvent;
+import com.atlassian.crowd.event.group.GroupMembershipDeletedEvent;
+import com.atlassian.crowd.event.user.UserDeletedEvent;
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.atlassian.jira.security.groups.GroupManager;
+
+/**
+ * Names of all groups of a user, nested groups included, read with one query and kept for
+ * {@value #TTL_PROPERTY} seconds (default {@value #DEFAULT_TTL}).
+ *
+ * Every change of memberships, groups or users published by Crowd starts a new snapshot, and
+ * entries of older snapshots are not used. A query started before the change can not store
+ * its result as current.
+ */
+public class GroupMembershipCache implements InitializingBean, DisposableBean {
+    public static final String TTL_PROPERTY = "jsu.groups.cache.ttl";
+    public static final int DEFAULT_TTL = 60;
+
+    private static final Logger log = LoggerFactory.getLogger(GroupMembershipCache.class);
+    private static final int MAX_USERS = 10000;
+    private static final int MAX_ARGUMENTS = 1000;
+
+    private final EventPublisher eventPublisher;
+    private final GroupManager groupManager;
+    private final long ttlMillis;
+    private final AtomicLong snapshot = new AtomicLong();
+    private final ConcurrentMap<String, Memberships> users = new ConcurrentHashMap<String, Memberships>();
+    private final ConcurrentMap<String, String[]> arguments = new ConcurrentHashMap<String, String[]>();
+
+    public GroupMembershipCache(EventPublisher eventPublisher, GroupManager groupManager) {
+        this.eventPublisher = eventPublisher;
+        this.groupManager = groupManager;
+        this.ttlMillis = Math.max(0, Integer.getInteger(TTL_PROPERTY, DEFAULT_TTL)) * 1000L;
+    }
+
+    /**
+     * @param userName name of the user.
+     * @param groupNames group names as returned by {@link #parseGroups(String)}.
+     * @return true if the user is member of any of the groups.
+     */
+    public boolean isMemberOfAny(String userName, String[] groupNames) {
+        if ((userName == null) || (groupNames.length == 0)) {
+            return false;
+        }
+
+        Set<String> groups = getGroupNames(userName);
+
+        for (String groupName : groupNames) {
+            if (groups.contains(groupName)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param argument groups as stored in condition arguments, separated by {@link WorkflowUtils#SPLITTER}.
+     * @return names of the groups in lower case, without empty ones.
+     */
+    public String[] parseGroups(String argument) {
+        if (argument == null) {
+            return new String[0];
+        }
+
+        String[] groupNames = arguments.get(argument);
+
+        if (groupNames == null) {
+            Set<String> names = new HashSet<String>();
+
+            for (String name : argument.split("\\Q" + WorkflowUtils.SPLITTER + "\\E")) {
+                if (name.length() > 0) {
+                    names.add(normalize(name));
+                }
+            }
+
+            groupNames = names.toArray(new String[names.size()]);
+
+            if (arguments.size() >= MAX_ARGUMENTS) {
+                arguments.clear();
+            }
+
+            arguments.put(argument, groupNames);
+        }
+
+        return groupNames;
+    }
+
+    /**
+     * @return names of all groups of the user in lower case.
+     */
+    public Set<String> getGroupNames(String userName) {
+        String key = normalize(userName);
+        long current = snapshot.get();
+        long now = System.currentTimeMillis();
+        Memberships memberships = users.get(key);
+
+        if ((memberships != null) && (memberships.snapshot == current) && (memberships.expires > now)) {
+            return memberships.groupNames;
+        }
+
+        Collection<String> names = groupManager.getGroupNamesForUser(userName);
+        Set<String> groupNames = new HashSet<String>(names.size() * 2);
+
+        for (String name : names) {
+            groupNames.add(normalize(name));
+        }
+
+        if (users.size() >= MAX_USERS) {
+            users.clear();
+        }
+
+        users.put(key, new Memberships(groupNames, current, now + ttlMillis));
+
+        return groupNames;
+    }
+
+    @EventListener
+    public void onMembershipCreated(GroupMembershipCreatedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onMembershipDeleted(GroupMembershipDeletedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onGroupDeleted(GroupDeletedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onDirectorySynchronised(RemoteDirectorySynchronisedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Starts a new snapshot, memberships read before are not used any more.
+     */
+    public void invalidate() {
+        snapshot.incrementAndGet();
+        users.clear();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Group memberships invalidated");
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        users.clear();
+        arguments.clear();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Memberships {
+        private final Set<String> groupNames;
+        private final long snapshot;
+        private final long expires;
+
+        private Memberships(Set<String> groupNames, long snapshot, long expires) {
+            this.groupNames = groupNames;
+            this.snapshot = snapshot;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.googlecode.jsu.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.config.ConstantsManager;
+import com.atlassian.jira.config.PriorityManager;
+import com.atlassian.jira.config.properties.ApplicationProperties;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.atlassian.jira.issue.priority.Priority;
+import com.atlassian.jira.issue.resolution.Resolution;
+import com.atlassian.jira.issue.security.IssueSecurityLevel;
+import com.atlassian.jira.issue.security.IssueSecurityLevelManager;
+import com.atlassian.jira.issue.status.Status;
+
+/**
+ * Priorities, resolutions, statuses and security levels by name, to set them from text.
+ *
+ * The index is built at first use and replaced on {@link ClearCacheEvent} and after
+ * {@value #TTL_PROPERTY} seconds (default {@value #DEFAULT_TTL}), because JIRA publishes no
+ * event when these constants are changed. It is also built again when a name is not found,
+ * or when the constant found was deleted meanwhile, before reporting that there is none.
+ */
+public class IssueConstantIndex implements InitializingBean, DisposableBean {
+    public static final String TTL_PROPERTY = "jsu.constants.cache.ttl";
+    public static final int DEFAULT_TTL = 300;
+
+    private static final Logger log = LoggerFactory.getLogger(IssueConstantIndex.class);
+
+    private final EventPublisher eventPublisher;
+    private final PriorityManager priorityManager;
+    private final ConstantsManager constantsManager;
+    private final IssueSecurityLevelManager issueSecurityLevelManager;
+    private final ApplicationProperties applicationProperties;
+    private final long ttlMillis;
+
+    private volatile Index index;
+
+    public IssueConstantIndex(
+            EventPublisher eventPublisher, PriorityManager priorityManager,
+            ConstantsManager constantsManager, IssueSecurityLevelManager issueSecurityLevelManager,
+            ApplicationProperties applicationProperties
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.priorityManager = priorityManager;
+        this.constantsManager = constantsManager;
+        this.issueSecurityLevelManager = issueSecurityLevelManager;
+        this.applicationProperties = applicationProperties;
+        this.ttlMillis = Math.max(0, Integer.getInteger(TTL_PROPERTY, DEFAULT_TTL)) * 1000L;
+    }
+
+    /**
+     * @param text id, name or name translated to the default language of the priority.
+     * @return the priority, null if there is none.
+     */
+    public Priority getPriority(String text) {
+        Priority priority = findPriority(getIndex(), text);
+
+        if ((priority == null) || (constantsManager.getPriorityObject(priority.getId()) == null)) {
+            priority = findPriority(rebuildIndex(), text);
+        }
+
+        return priority;
+    }
+
+    /**
+     * @param name name of the resolution, case is ignored.
+     * @return the resolution, null if there is none.
+     */
+    public Resolution getResolution(String name) {
+        String key = name.toLowerCase(Locale.ENGLISH);
+        Resolution resolution = getIndex().resolutions.get(key);
+
+        if ((resolution == null) || (constantsManager.getResolutionObject(resolution.getId()) == null)) {
+            resolution = rebuildIndex().resolutions.get(key);
+        }
+
+        return resolution;
+    }
+
+    /**
+     * @return the status with the name, null if there is none.
+     */
+    public Status getStatus(String name) {
+        Status status = getIndex().statuses.get(name);
+
+        if ((status == null) || (constantsManager.getStatusObject(status.getId()) == null)) {
+            status = rebuildIndex().statuses.get(name);
+        }
+
+        return status;
+    }
+
+    /**
+     * @return the security levels with the name, null if there is none.
+     */
+    public List<IssueSecurityLevel> getSecurityLevels(String name) {
+        List<IssueSecurityLevel> levels = getIndex().securityLevels.get(name);
+
+        if ((levels == null) || !existSecurityLevels(levels)) {
+            levels = rebuildIndex().securityLevels.get(name);
+        }
+
+        return levels;
+    }
+
+    private boolean existSecurityLevels(List<IssueSecurityLevel> levels) {
+        for (IssueSecurityLevel level : levels) {
+            if (issueSecurityLevelManager.getSecurityLevel(level.getId()) == null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Priority findPriority(Index current, String text) {
+        Priority priority = current.prioritiesById.get(text);
+
+        if (priority == null) {
+            priority = current.prioritiesByName.get(text);
+        }
+
+        if (priority == null) {
+            priority = current.prioritiesByTranslation.get(text);
+        }
+
+        return priority;
+    }
+
+    private Index getIndex() {
+        Index current = index;
+        long now = System.currentTimeMillis();
+        String locale = applicationProperties.getDefaultLocale().toString();
+
+        if ((current == null) || (current.expires <= now) || !current.locale.equals(locale)) {
+            current = rebuildIndex();
+        }
+
+        return current;
+    }
+
+    /**
+     * Builds the index again, when a constant was not found or does not exist any more.
+     */
+    private Index rebuildIndex() {
+        String locale = applicationProperties.getDefaultLocale().toString();
+        Index current = new Index(locale, System.currentTimeMillis() + ttlMillis);
+
+        index = current;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Built issue constant index for locale " + locale);
+        }
+
+        return current;
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Drops the index, it is built again at next use.
+     */
+    public void invalidate() {
+        index = null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        invalidate();
+    }
+
+    /**
+     * Maps are filled once and only read afterwards. When names repeat, the first constant
+     * wins, as in a search through the list.
+     */
+    private final class Index {
+        private final String locale;
+        private final long expires;
+        private final Map<String, Priority> prioritiesById = new HashMap<String, Priority>();
+        private final Map<String, Priority> prioritiesByName = new HashMap<String, Priority>();
+        private final Map<String, Priority> prioritiesByTranslation = new HashMap<String, Priority>();
+        private final Map<String, Resolution> resolutions = new HashMap<String, Resolution>();
+        private final Map<String, Status> statuses = new HashMap<String, Status>();
+        private final Map<String, List<IssueSecurityLevel>> securityLevels = new HashMap<String, List<IssueSecurityLevel>>();
+
+        private Index(String locale, long expires) {
+            this.locale = locale;
+            this.expires = expires;
+
+            for (Priority priority : priorityManager.getPriorities()) {
+                putFirst(prioritiesById, priority.getId(), priority);
+                putFirst(prioritiesByName, priority.getName(), priority);
+                putFirst(prioritiesByTranslation, priority.getNameTranslation(locale), priority);
+            }
+
+            for (Resolution resolution : constantsManager.getResolutionObjects()) {
+                putFirst(resolutions, resolution.getName().toLowerCase(Locale.ENGLISH), resolution);
+            }
+
+            for (Status status : constantsManager.getStatusObjects()) {
+                putFirst(statuses, status.getName(), status);
+            }
+
+            Collection<IssueSecurityLevel> levels = issueSecurityLevelManager.getAllIssueSecurityLevels();
+
+            for (IssueSecurityLevel level : levels) {
+                List<IssueSecurityLevel> named = securityLevels.get(level.getName());
+
+                if (named == null) {
+                    named = new ArrayList<IssueSecurityLevel>(1);
+                    securityLevels.put(level.getName(), named);
+                }
+
+                named.add(level);
+            }
+        }
+
+        private <T> void putFirst(Map<String, T> map, String key, T value) {
+            if ((key != null) && !map.containsKey(key)) {
+                map.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.googlecode.jsu.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to non null values, using open addressing with linear
+ * probing. Keys are never boxed, and no entry objects are allocated, which keeps hot
+ * aggregation loops free of garbage.
+ *
+ * It does not support removal, and it is not thread safe.
+ */
+public class LongObjectHashMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize how many entries are expected, so the map is not resized.
+     */
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = 4;
+
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * @return the value of the key, or null if there is no such entry.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+
+        return (V) values[index];
+    }
+
+    /**
+     * @return the previous value of the key, or null if there was no such entry.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+
+        int index = indexOf(key);
+        V previous = (V) values[index];
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (previous == null) {
+            if (++size > resizeAt) {
+                rehash();
+            }
+        }
+
+        return previous;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @return the slot of the key, or the empty slot where it should be placed.
+     */
+    private int indexOf(long key) {
+        int index = mix(key) & mask;
+
+        while ((values[index] != null) && (keys[index] != key)) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(keys.length << 1);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = indexOf(oldKeys[i]);
+
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads both halves of the key, packed keys often differ only in the low bits of each half.
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,193 @@
+package com.googlecode.jsu.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.atlassian.jira.issue.customfields.manager.OptionsManager;
+import com.atlassian.jira.issue.customfields.option.Option;
+import com.atlassian.jira.issue.customfields.option.Options;
+import com.atlassian.jira.issue.fields.config.FieldConfig;
+
+/**
+ * Options of each field configuration by value and by id, child options of cascading selects
+ * included. The options of a configuration are loaded at first use and kept for
+ * {@value #TTL_PROPERTY} seconds (default {@value #DEFAULT_TTL}), because JIRA publishes no
+ * event when options are edited. {@link ClearCacheEvent} drops all of them.
+ *
+ * When a value is not found, or the option found was deleted meanwhile, the options of the
+ * configuration are loaded again before reporting that there is none.
+ */
+public class OptionIndex implements InitializingBean, DisposableBean {
+    public static final String TTL_PROPERTY = "jsu.options.cache.ttl";
+    public static final int DEFAULT_TTL = 60;
+
+    private static final Logger log = LoggerFactory.getLogger(OptionIndex.class);
+    private static final int MAX_CONFIGS = 1000;
+
+    private final EventPublisher eventPublisher;
+    private final OptionsManager optionsManager;
+    private final long ttlMillis;
+    private final ConcurrentMap<Long, ConfigOptions> configs = new ConcurrentHashMap<Long, ConfigOptions>();
+
+    public OptionIndex(EventPublisher eventPublisher, OptionsManager optionsManager) {
+        this.eventPublisher = eventPublisher;
+        this.optionsManager = optionsManager;
+        this.ttlMillis = Math.max(0, Integer.getInteger(TTL_PROPERTY, DEFAULT_TTL)) * 1000L;
+    }
+
+    /**
+     * @param config field configuration of the options.
+     * @param value value of the option, an exact match is preferred to one ignoring case. If no
+     * option has this value, it is taken as option id.
+     * @return the option, null if the configuration has none with this value or id.
+     */
+    public Option getOption(FieldConfig config, String value) {
+        if ((config == null) || (value == null)) {
+            return null;
+        }
+
+        Option option = findOption(getOptions(config), value);
+
+        if ((option == null) || (optionsManager.findByOptionId(option.getOptionId()) == null)) {
+            // Added or deleted since the options were loaded.
+            option = findOption(loadOptions(config), value);
+        }
+
+        return option;
+    }
+
+    private static Option findOption(ConfigOptions options, String value) {
+        Option option = options.byValue.get(value);
+
+        if (option == null) {
+            option = options.byLowerCaseValue.get(value.toLowerCase(Locale.ENGLISH));
+        }
+
+        if (option == null) {
+            try {
+                option = options.byId.get(Long.valueOf(value));
+            } catch (NumberFormatException e) {
+                // Not an id.
+            }
+        }
+
+        return option;
+    }
+
+    private ConfigOptions getOptions(FieldConfig config) {
+        ConfigOptions options = configs.get(config.getId());
+
+        if ((options == null) || (options.expires <= System.currentTimeMillis())) {
+            options = loadOptions(config);
+        }
+
+        return options;
+    }
+
+    private ConfigOptions loadOptions(FieldConfig config) {
+        Long configId = config.getId();
+        ConfigOptions options = new ConfigOptions(
+                optionsManager.getOptions(config), System.currentTimeMillis() + ttlMillis
+        );
+
+        if (configs.size() >= MAX_CONFIGS) {
+            configs.clear();
+        }
+
+        configs.put(configId, options);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + options.byId.size() + " options of field configuration " + configId);
+        }
+
+        return options;
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Drops all options, they are loaded again at next use.
+     */
+    public void invalidate() {
+        configs.clear();
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        invalidate();
+    }
+
+    /**
+     * Options of one configuration. Maps are filled once and only read afterwards; top level
+     * options come before child options when values repeat.
+     */
+    private static final class ConfigOptions {
+        private final Map<String, Option> byValue = new HashMap<String, Option>();
+        private final Map<String, Option> byLowerCaseValue = new HashMap<String, Option>();
+        private final Map<Long, Option> byId = new HashMap<Long, Option>();
+        private final long expires;
+
+        private ConfigOptions(Options options, long expires) {
+            this.expires = expires;
+
+            if (options != null) {
+                for (Option option : options) {
+                    add(option);
+                }
+
+                for (Option option : options) {
+                    List<Option> children = option.getChildOptions();
+
+                    if (children != null) {
+                        for (Option child : children) {
+                            add(child);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void add(Option option) {
+            String value = option.getValue();
+
+            if (value != null) {
+                if (!byValue.containsKey(value)) {
+                    byValue.put(value, option);
+                }
+
+                String lowerCaseValue = value.toLowerCase(Locale.ENGLISH);
+
+                if (!byLowerCaseValue.containsKey(lowerCaseValue)) {
+                    byLowerCaseValue.put(lowerCaseValue, option);
+                }
+            }
+
+            byId.put(option.getOptionId(), option);
+        }
+    }
+}
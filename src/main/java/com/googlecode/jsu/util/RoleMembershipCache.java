@@ -0,0 +1,168 @@
+package com.googlecode.jsu.util;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.atlassian.jira.project.Project;
+import com.atlassian.jira.security.roles.ProjectRole;
+import com.atlassian.jira.security.roles.ProjectRoleManager;
+import com.atlassian.jira.user.ApplicationUser;
+
+/**
+ * Ids of the project roles of a user in a project, read with one query and kept during one
+ * workflow request. OSWorkflow passes the same transient variables to all conditions checked
+ * for the available transitions of an issue, so the roles are kept there and die with the
+ * request.
+ *
+ * Roles are never kept across requests: JIRA publishes no event when role actors change, and
+ * a role check must not be answered from stale memberships.
+ */
+public class RoleMembershipCache {
+    /** Name of the transient variable. */
+    public static final String TRANSIENT_VAR = "jsu.roleMemberships";
+
+    private final ProjectRoleManager projectRoleManager;
+
+    public RoleMembershipCache(ProjectRoleManager projectRoleManager) {
+        this.projectRoleManager = projectRoleManager;
+    }
+
+    /**
+     * @param transientVars variables of the workflow request, may be null.
+     * @param user the user.
+     * @param project project of the roles.
+     * @param roleIds role ids as returned by {@link #parseRoles(String)}.
+     * @return true if the user is in any of the roles in the project.
+     */
+    public boolean isInAnyRole(@SuppressWarnings("rawtypes") Map transientVars,
+                               ApplicationUser user, Project project, long[] roleIds) {
+        if ((user == null) || (project == null) || (roleIds.length == 0)) {
+            return false;
+        }
+
+        RoleIds roles = getRoleIds(transientVars, user, project);
+
+        for (long roleId : roleIds) {
+            if (roles.contains(roleId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param argument role names as stored in condition arguments, separated by {@link WorkflowUtils#SPLITTER}.
+     * @return ids of the roles, roles which do not exist are left out.
+     */
+    public long[] parseRoles(String argument) {
+        if (argument == null) {
+            return new long[0];
+        }
+
+        Set<Long> ids = new HashSet<Long>();
+
+        for (String name : argument.split("\\Q" + WorkflowUtils.SPLITTER + "\\E")) {
+            ProjectRole role = (name.length() > 0) ? projectRoleManager.getProjectRole(name) : null;
+
+            if (role != null) {
+                ids.add(role.getId());
+            }
+        }
+
+        long[] roleIds = new long[ids.size()];
+        int i = 0;
+
+        for (Long id : ids) {
+            roleIds[i++] = id;
+        }
+
+        return roleIds;
+    }
+
+    private RoleIds getRoleIds(@SuppressWarnings("rawtypes") Map transientVars,
+                               ApplicationUser user, Project project) {
+        Map<String, RoleIds> memberships = getMemberships(transientVars);
+        String key = user.getKey() + '/' + project.getId();
+        RoleIds roles = memberships.get(key);
+
+        if (roles == null) {
+            roles = new RoleIds(projectRoleManager.getProjectRoles(user, project));
+
+            memberships.put(key, roles);
+        }
+
+        return roles;
+    }
+
+    /**
+     * @return the memberships read during the request. Without transient variables, or if they
+     * could not be changed, they are only used by the caller.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, RoleIds> getMemberships(@SuppressWarnings("rawtypes") Map transientVars) {
+        if (transientVars == null) {
+            return new HashMap<String, RoleIds>();
+        }
+
+        Object memberships = transientVars.get(TRANSIENT_VAR);
+
+        if (memberships instanceof RoleMemberships) {
+            return (RoleMemberships) memberships;
+        }
+
+        RoleMemberships result = new RoleMemberships();
+
+        try {
+            transientVars.put(TRANSIENT_VAR, result);
+        } catch (UnsupportedOperationException e) {
+            // Read only variables, memberships are not shared.
+        }
+
+        return result;
+    }
+
+    /**
+     * Memberships of a request, by user key and project id.
+     */
+    private static final class RoleMemberships extends HashMap<String, RoleIds> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Role ids as bits. Ids do not go beyond the range of int in practice, any that does is
+     * kept aside.
+     */
+    private static final class RoleIds {
+        private final BitSet bits = new BitSet();
+        private Set<Long> others;
+
+        private RoleIds(Collection<ProjectRole> roles) {
+            for (ProjectRole role : roles) {
+                long id = role.getId();
+
+                if ((id >= 0) && (id <= Integer.MAX_VALUE)) {
+                    bits.set((int) id);
+                } else {
+                    if (others == null) {
+                        others = new HashSet<Long>();
+                    }
+
+                    others.add(id);
+                }
+            }
+        }
+
+        private boolean contains(long id) {
+            if ((id >= 0) && (id <= Integer.MAX_VALUE)) {
+                return bits.get((int) id);
+            }
+
+            return (others != null) && others.contains(id);
+        }
+    }
+}
@@ -3,10 +3,8 @@ package com.googlecode.jsu.util;
 import com.atlassian.crowd.embedded.api.CrowdService;
 import com.atlassian.crowd.embedded.api.Group;
 import com.atlassian.crowd.embedded.api.User;
-import com.atlassian.jira.ComponentManager;
 import com.atlassian.jira.bc.project.component.ProjectComponent;
 import com.atlassian.jira.bc.project.component.ProjectComponentManager;
-import com.atlassian.jira.config.PriorityManager;
 import com.atlassian.jira.config.properties.APKeys;
 import com.atlassian.jira.config.properties.ApplicationProperties;
 import com.atlassian.jira.issue.*;
@@ -14,7 +12,6 @@ import com.atlassian.jira.issue.customfields.CustomFieldType;
 import com.atlassian.jira.issue.customfields.MultipleCustomFieldType;
 import com.atlassian.jira.issue.customfields.MultipleSettableCustomFieldType;
 import com.atlassian.jira.issue.customfields.impl.*;
-import com.atlassian.jira.issue.customfields.manager.OptionsManager;
 import com.atlassian.jira.issue.customfields.option.Option;
 import com.atlassian.jira.issue.customfields.option.Options;
 import com.atlassian.jira.issue.customfields.view.CustomFieldParams;
@@ -22,7 +19,6 @@ import com.atlassian.jira.issue.customfields.view.CustomFieldParamsImpl;
 import com.atlassian.jira.issue.fields.CustomField;
 import com.atlassian.jira.issue.fields.Field;
 import com.atlassian.jira.issue.fields.FieldManager;
-import com.atlassian.jira.issue.fields.config.FieldConfig;
 import com.atlassian.jira.issue.fields.layout.field.FieldLayoutItem;
 import com.atlassian.jira.issue.fields.screen.FieldScreen;
 import com.atlassian.jira.issue.label.LabelManager;
@@ -30,10 +26,8 @@ import com.atlassian.jira.issue.link.IssueLinkManager;
 import com.atlassian.jira.issue.priority.Priority;
 import com.atlassian.jira.issue.resolution.Resolution;
 import com.atlassian.jira.issue.security.IssueSecurityLevel;
-import com.atlassian.jira.issue.security.IssueSecurityLevelManager;
 import com.atlassian.jira.issue.status.Status;
 import com.atlassian.jira.issue.util.IssueChangeHolder;
-import com.atlassian.jira.issue.worklog.WorkRatio;
 import com.atlassian.jira.project.Project;
 import com.atlassian.jira.project.ProjectManager;
 import com.atlassian.jira.project.version.Version;
@@ -42,14 +36,12 @@ import com.atlassian.jira.security.roles.ProjectRole;
 import com.atlassian.jira.security.roles.ProjectRoleManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
-import com.atlassian.jira.util.ObjectUtils;
 import com.atlassian.jira.workflow.WorkflowActionsBean;
 import com.googlecode.jsu.helpers.checkers.ConverterString;
 import com.opensymphony.workflow.loader.AbstractDescriptor;
 import com.opensymphony.workflow.loader.ActionDescriptor;
 import com.opensymphony.workflow.loader.FunctionDescriptor;
 import org.apache.commons.lang.StringUtils;
-import org.ofbiz.core.entity.GenericEntityException;
 import org.ofbiz.core.entity.GenericValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +51,9 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 //import com.opensymphony.user.Entity;
 
@@ -73,6 +68,15 @@ import java.util.*;
 public class WorkflowUtils {
     public static final String SPLITTER = "@@";
 
+    private static final Pattern SPACE = Pattern.compile(" ");
+    private static final Pattern COMMA = Pattern.compile(",");
+    private static final ThreadLocal<Map<String, DateFormat>> DATE_FORMATS = new ThreadLocal<Map<String, DateFormat>>() {
+        @Override
+        protected Map<String, DateFormat> initialValue() {
+            return new HashMap<String, DateFormat>();
+        }
+    };
+
     private final WorkflowActionsBean workflowActionsBean = new WorkflowActionsBean();
     private final Logger log = LoggerFactory.getLogger(WorkflowUtils.class);
 
@@ -80,41 +84,45 @@ public class WorkflowUtils {
     private final IssueManager issueManager;
     private final ProjectComponentManager projectComponentManager;
     private final VersionManager versionManager;
-    private final IssueSecurityLevelManager issueSecurityLevelManager;
     private final ApplicationProperties applicationProperties;
     private final FieldCollectionsUtils fieldCollectionsUtils;
     private final IssueLinkManager issueLinkManager;
     private final UserManager userManager;
     private final CrowdService crowdService;
-    private final OptionsManager optionsManager;
+    private final OptionIndex optionIndex;
     private final ProjectManager projectManager;
-    private final PriorityManager priorityManager;
     private final LabelManager labelManager;
     private final ProjectRoleManager projectRoleManager;
+    private final FieldResolver fieldResolver;
+    private final IssueConstantIndex issueConstantIndex;
+    private final FieldValueExtractors valueExtractors;
+    private final ConcurrentMap<String, FieldWritePlan> writePlans = new ConcurrentHashMap<String, FieldWritePlan>();
 
     public WorkflowUtils(
             FieldManager fieldManager, IssueManager issueManager,
             ProjectComponentManager projectComponentManager, VersionManager versionManager,
-            IssueSecurityLevelManager issueSecurityLevelManager, ApplicationProperties applicationProperties,
+            ApplicationProperties applicationProperties,
             FieldCollectionsUtils fieldCollectionsUtils, IssueLinkManager issueLinkManager,
-            UserManager userManager, CrowdService crowdService, OptionsManager optionsManager,
-            ProjectManager projectManager, PriorityManager priorityManager, LabelManager labelManager,
-            ProjectRoleManager projectRoleManager) {
+            UserManager userManager, CrowdService crowdService, OptionIndex optionIndex,
+            ProjectManager projectManager, LabelManager labelManager,
+            ProjectRoleManager projectRoleManager, FieldResolver fieldResolver,
+            IssueConstantIndex issueConstantIndex) {
         this.fieldManager = fieldManager;
         this.issueManager = issueManager;
         this.projectComponentManager = projectComponentManager;
         this.versionManager = versionManager;
-        this.issueSecurityLevelManager = issueSecurityLevelManager;
         this.applicationProperties = applicationProperties;
         this.fieldCollectionsUtils = fieldCollectionsUtils;
         this.issueLinkManager = issueLinkManager;
         this.userManager = userManager;
         this.crowdService = crowdService;
-        this.optionsManager = optionsManager;
+        this.optionIndex = optionIndex;
         this.projectManager = projectManager;
-        this.priorityManager = priorityManager;
         this.labelManager = labelManager;
         this.projectRoleManager = projectRoleManager;
+        this.fieldResolver = fieldResolver;
+        this.issueConstantIndex = issueConstantIndex;
+        this.valueExtractors = new FieldValueExtractors(fieldManager, issueManager, issueLinkManager);
     }
 
     /**
@@ -128,19 +136,7 @@ public class WorkflowUtils {
      * @return a Field object from given key. (Field or Custom Field).
      */
     public Field getFieldFromKey(String key) {
-        Field field;
-
-        if (fieldManager.isCustomField(key)) {
-            field = fieldManager.getCustomField(key);
-        } else {
-            field = fieldManager.getField(key);
-        }
-
-        if (field == null) {
-            throw new IllegalArgumentException("Unable to find field '" + key + "'");
-        }
-
-        return field;
+        return fieldResolver.getField(key);
     }
 
     public Field getFieldFromDescriptor(AbstractDescriptor descriptor, String name) {
@@ -203,146 +199,15 @@ public class WorkflowUtils {
         Object retVal = null;
 
         try {
-            if (fieldManager.isCustomField(field)) {
-                // Return the CustomField value. It could be any object.
-                CustomField customField = (CustomField) field;
-                Object value = issue.getCustomFieldValue(customField);
+            retVal = valueExtractors.getExtractor(field).getValue(issue, field, asOption);
 
-                if (customField.getCustomFieldType() instanceof CascadingSelectCFType) {
-                    HashMap<String, Option> hashMapEntries = (HashMap<String, Option>) value;
-
-                    if (hashMapEntries != null) {
-                        Option parent =  hashMapEntries.get(CascadingSelectCFType.PARENT_KEY);
-                        Option child =  hashMapEntries.get(CascadingSelectCFType.CHILD_KEY);
-
-                        if (parent != null) {
-                            if (ObjectUtils.isValueSelected(child)) {
-                                retVal = asOption?child:child.toString();
-                            } else {
-                                final List<Option> childOptions = parent.getChildOptions();
-
-                                if ((childOptions == null) || (childOptions.isEmpty())) {
-                                    retVal = asOption?parent:parent.toString();
-                                }
-                            }
-                        }
-                    }
-                } else {
-                    retVal = value; 
-                }
-
-                if (log.isDebugEnabled()) {
-                    log.debug(
-                            String.format(
-                                    "Got field value [object=%s;class=%s]",
-                                    retVal, ((retVal != null) ? retVal.getClass() : "")
-                            )
-                    );
-                }
-            } else {
-                String fieldId = field.getId();
-                Collection<?> retCollection;
-
-                // Special treatment of fields.
-                if (fieldId.equals(IssueFieldConstants.ATTACHMENT)) {
-                    // return a collection with the attachments associated to given issue.
-                    retCollection = issue.getAttachments();
-
-                    if (retCollection != null && !retCollection.isEmpty()) {
-                        retVal = retCollection;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.AFFECTED_VERSIONS)) {
-                    retCollection = issue.getAffectedVersions();
-
-                    if (retCollection != null && !retCollection.isEmpty()) {
-                        retVal = retCollection;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.COMMENT)) {
-                    // return a list with the comments of a given issue.
-                    try {
-                        retCollection = issueManager.getEntitiesByIssueObject(
-                                IssueRelationConstants.COMMENTS, issue
-                        );
-
-                        if (retCollection != null && !retCollection.isEmpty()) {
-                            retVal = retCollection;
-                        }
-                    } catch (GenericEntityException e) {
-                        retVal = null;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.COMPONENTS)) {
-                    retCollection = issue.getComponents();
-
-                    if (retCollection != null && !retCollection.isEmpty()) {
-                        retVal = retCollection;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.FIX_FOR_VERSIONS)) {
-                    retCollection = issue.getFixVersions();
-
-                    if (retCollection != null && !retCollection.isEmpty()) {
-                        retVal = retCollection;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.THUMBNAIL)) {
-                    // Not implemented, yet.
-                } else if (fieldId.equals(IssueFieldConstants.ISSUE_TYPE)) {
-                    retVal = issue.getIssueTypeObject();
-                } else if (fieldId.equals(IssueFieldConstants.TIMETRACKING)) {
-                    // Not implemented, yet.
-                } else if (fieldId.equals(IssueFieldConstants.ISSUE_LINKS)) {
-                    retVal = issueLinkManager.getIssueLinks(issue.getId());
-                } else if (fieldId.equals(IssueFieldConstants.WORKRATIO)) {
-                    retVal = String.valueOf(WorkRatio.getWorkRatio(issue));
-                } else if (fieldId.equals(IssueFieldConstants.ISSUE_KEY)) {
-                    retVal = issue.getKey();
-                } else if (fieldId.equals(IssueFieldConstants.SUBTASKS)) {
-                    retCollection = issue.getSubTaskObjects();
-
-                    if (retCollection != null && !retCollection.isEmpty()) {
-                        retVal = retCollection;
-                    }
-                } else if (fieldId.equals(IssueFieldConstants.PRIORITY)) {
-                    retVal = issue.getPriorityObject();
-                } else if (fieldId.equals(IssueFieldConstants.RESOLUTION)) {
-                    retVal = issue.getResolutionObject();
-                } else if (fieldId.equals(IssueFieldConstants.STATUS)) {
-                    retVal = issue.getStatusObject();
-                } else if (fieldId.equals(IssueFieldConstants.PROJECT)) {
-                    retVal = issue.getProjectObject();
-                } else if (fieldId.equals(IssueFieldConstants.SECURITY)) {
-                    retVal = issue.getSecurityLevel();
-                } else if (fieldId.equals(IssueFieldConstants.TIME_ESTIMATE)) {
-                    retVal = issue.getEstimate();
-                } else if (fieldId.equals(IssueFieldConstants.TIME_SPENT)) {
-                    retVal = issue.getTimeSpent();
-                } else if (fieldId.equals(IssueFieldConstants.ASSIGNEE)) {
-                    retVal = issue.getAssigneeUser();
-                } else if (fieldId.equals(IssueFieldConstants.REPORTER)) {
-                    retVal = issue.getReporterUser();
-                } else if (fieldId.equals(IssueFieldConstants.DESCRIPTION)) {
-                    retVal = issue.getDescription();
-                } else if (fieldId.equals(IssueFieldConstants.ENVIRONMENT)) {
-                    retVal = issue.getEnvironment();
-                } else if (fieldId.equals(IssueFieldConstants.SUMMARY)) {
-                    retVal = issue.getSummary();
-                } else if (fieldId.equals(IssueFieldConstants.DUE_DATE)) {
-                    retVal = issue.getDueDate();
-                } else if (fieldId.equals(IssueFieldConstants.UPDATED)) {
-                    retVal = issue.getUpdated();
-                } else if (fieldId.equals(IssueFieldConstants.CREATED)) {
-                    retVal = issue.getCreated();
-                } else if (fieldId.equals(IssueFieldConstants.RESOLUTION_DATE)) {
-                    retVal = issue.getResolutionDate();
-                } else if (fieldId.equals(IssueFieldConstants.LABELS)) {
-                    retVal = issue.getLabels();
-                } else {
-                    log.warn("Issue field \"" + fieldId + "\" is not supported.");
-
-                    GenericValue gvIssue = issue.getGenericValue();
-
-                    if (gvIssue != null) {
-                        retVal = gvIssue.get(fieldId);
-                    }
-                }
+            if (log.isDebugEnabled() && fieldManager.isCustomField(field)) {
+                log.debug(
+                        String.format(
+                                "Got field value [object=%s;class=%s]",
+                                retVal, ((retVal != null) ? retVal.getClass() : "")
+                        )
+                );
             }
         } catch (NullPointerException e) {
             retVal = null;
@@ -353,11 +218,20 @@ public class WorkflowUtils {
         return retVal;
     }
 
+    /**
+     * @return the table of extractors used to read field values, to register new field types.
+     */
+    public FieldValueExtractors getValueExtractors() {
+        return valueExtractors;
+    }
+
     /**
      * Sets specified value to the field for the issue.
      */
     public void setFieldValue(ApplicationUser currentUser, MutableIssue issue, Field field, Object value, IssueChangeHolder changeHolder) {
-        if (fieldManager.isCustomField(field)) {
+        final FieldWritePlan plan = getWritePlan(field);
+
+        if (plan.custom) {
             CustomField customField = (CustomField) field;
             Object oldValue = issue.getCustomFieldValue(customField);
             FieldLayoutItem fieldLayoutItem;
@@ -380,25 +254,31 @@ public class WorkflowUtils {
             fieldLayoutItem = fieldCollectionsUtils.getFieldLayoutItem(issue, field);
             Object newValue = value;
 
-            if (value instanceof IssueConstant) {
-                newValue = ((IssueConstant) value).getName();
-            } else if (value instanceof GenericValue) {
-                final GenericValue gv = (GenericValue) value;
+            switch (plan.getConversion(value)) {
+                case CONSTANT_NAME:
+                    newValue = ((IssueConstant) value).getName();
+                    break;
+                case SECURITY_LEVEL_NAME:
+                    final GenericValue gv = (GenericValue) value;
 
-                if ("SchemeIssueSecurityLevels".equals(gv.getEntityName())) { // We got security level
-                    newValue = gv.getString("name");
-                }
-            } else if (value instanceof Option && ! (cfType instanceof MultipleSettableCustomFieldType)) {
-                newValue = ((Option) newValue).getValue();
-            } else  if (value instanceof Timestamp && ! fieldCollectionsUtils.getAllDateFields().contains(field)) {
-                String format = applicationProperties.getDefaultBackedString(APKeys.JIRA_DATE_TIME_PICKER_JAVA_FORMAT);
-                DateFormat dateFormat = new SimpleDateFormat(format);
-                newValue = dateFormat.format(value);
+                    if ("SchemeIssueSecurityLevels".equals(gv.getEntityName())) { // We got security level
+                        newValue = gv.getString("name");
+                    }
+                    break;
+                case OPTION_VALUE:
+                    newValue = ((Option) newValue).getValue();
+                    break;
+                case DATE_TEXT:
+                    String format = applicationProperties.getDefaultBackedString(APKeys.JIRA_DATE_TIME_PICKER_JAVA_FORMAT);
+                    newValue = getDateFormat(format).format(value);
+                    break;
+                default:
+                    break;
             }
 
-            if (cfType instanceof VersionCFType) {
+            if (plan.customKind == FieldWritePlan.CustomKind.VERSION) {
                 newValue = convertValueToVersions(issue, newValue);
-            } else if (cfType instanceof ProjectCFType) {
+            } else if (plan.customKind == FieldWritePlan.CustomKind.PROJECT) {
                 Project p = convertValueToProject(newValue);
                 if(p!=null) {
                     //JIRA 5.1 and 5.2, custom fields still expect GenericValue
@@ -406,23 +286,23 @@ public class WorkflowUtils {
                 } else {
                     newValue = null;
                 }
-            } else if (cfType instanceof SelectCFType) {
+            } else if (plan.customKind == FieldWritePlan.CustomKind.SELECT) {
                 if(newValue!=null) {
                     SelectCFType selectCFType = (SelectCFType)cfType;
                     Options options = selectCFType.getOptions(customField.getRelevantConfig(issue),null);
                     newValue = options.getOptionForValue(newValue.toString(),null);
                 }
             } else if (newValue instanceof String) {
-                if (cfType instanceof MultipleSettableCustomFieldType) {
+                if (plan.multipleSettable) {
                     Option option = convertStringToOption(issue, customField, (String) newValue);
-                    if (cfType instanceof MultiSelectCFType) {
+                    if (plan.multiSelect) {
                         newValue = asArrayList(option);
-                    } else if (cfType instanceof CascadingSelectCFType) {
+                    } else if (plan.cascadingSelect) {
                         newValue = convertOptionToCascadingSelect(option);
                     } else {
                         newValue = option;
                     }
-                } else if (cfType instanceof LabelsCFType) {
+                } else if (plan.labels) {
                     Set<String> set = convertToSetForLabels((String) newValue);
                     this.labelManager.setLabels(convertApplicationUserToCrowdEmbeddedUser(currentUser),issue.getId(),customField.getIdAsLong(),set,false,true);
                 } else {
@@ -431,10 +311,9 @@ public class WorkflowUtils {
                     newValue = cfType.getValueFromCustomFieldParams(fieldParams);
                 }
             } else if (newValue instanceof Collection<?>) {
-                if ((cfType instanceof AbstractMultiCFType) ||
-                        (cfType instanceof MultipleCustomFieldType)) {
+                if (plan.multiValue) {
                     // format already correct
-                } else if (cfType instanceof  LabelsCFType) {
+                } else if (plan.labels) {
                     Set<String> set = new HashSet<String>();
                     for(Object o:(Collection)newValue) {
                         set.add(o.toString());
@@ -446,28 +325,28 @@ public class WorkflowUtils {
 
                     newValue = cfType.getValueFromCustomFieldParams(fieldParams);
                 }
-            } else if (cfType instanceof UserCFType) {
+            } else if (plan.user) {
                 newValue = convertValueToUser(newValue);
-            } else if (cfType instanceof LabelsCFType) {
+            } else if (plan.labels) {
                 if (newValue == null) {
                     this.labelManager.setLabels(convertApplicationUserToCrowdEmbeddedUser(currentUser),issue.getId(),customField.getIdAsLong(),new HashSet<String>(),false,true);
               }else{
                     String stringValue = convertToString(newValue);
-                    stringValue = stringValue.replaceAll(",", " ");
+                    stringValue = COMMA.matcher(stringValue).replaceAll(" ");
                     Set<String> set = convertToSetForLabels(stringValue);
                     this.labelManager.setLabels(convertApplicationUserToCrowdEmbeddedUser(currentUser),issue.getId(),customField.getIdAsLong(),set,false,true);
                 }
 
-            } else if (cfType instanceof AbstractMultiCFType) {
-                if (cfType instanceof MultiUserCFType) {
+            } else if (plan.abstractMulti) {
+                if (plan.multiUser) {
                     newValue = convertValueToUser(newValue);
                 }
                 if (newValue != null) {
                     newValue = asArrayList(newValue);
                 }
-            } else if (newValue instanceof User && !(cfType instanceof UserCFType)) {
+            } else if (newValue instanceof User && !plan.user) {
                 newValue = ((User)newValue).getName();
-            } else if (cfType instanceof GenericTextCFType) {
+            } else if (plan.genericText) {
                 if (newValue instanceof Project) {
                     newValue = ((Project)newValue).getKey();
                 }
@@ -483,7 +362,7 @@ public class WorkflowUtils {
             }
 
             // Updating internal custom field value if it is not a label, which got handled before by the label manager
-            if(!(cfType instanceof LabelsCFType)) {
+            if(!plan.labels) {
                 issue.setCustomFieldValue(customField, newValue);
 
                 if(issue.getKey()!=null) {
@@ -514,200 +393,181 @@ public class WorkflowUtils {
         } else { //----- System Fields -----
             final String fieldId = field.getId();
 
-            // Special treatment of fields.
-            if (fieldId.equals(IssueFieldConstants.ATTACHMENT)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //				// return a collection with the attachments associated to given issue.
-                //				retCollection = (Collection)issue.getExternalFieldValue(fieldId);
-                //				if(retCollection==null || retCollection.isEmpty()){
-                //					isEmpty = true;
-                //				}else{
-                //					retVal = retCollection;
-                //				}
-            } else if (fieldId.equals(IssueFieldConstants.AFFECTED_VERSIONS)) {
-                Collection<Version> versions = convertValueToVersions(issue, value);
-                issue.setAffectedVersions(versions);
-            } else if (fieldId.equals(IssueFieldConstants.COMMENT)) {
-                throw new UnsupportedOperationException("Not implemented");
-
-                //				// return a list with the comments of a given issue.
-                //				try {
-                //					retCollection = ManagerFactory.getIssueManager().getEntitiesByIssue(IssueRelationConstants.COMMENTS, issue.getGenericValue());
-                //					if(retCollection==null || retCollection.isEmpty()){
-                //						isEmpty = true;
-                //					}else{
-                //						retVal = retCollection;
-                //					}
-                //				} catch (GenericEntityException e) {
-                //					retVal = null;
-                //				}
-            } else if (fieldId.equals(IssueFieldConstants.COMPONENTS)) {
-                Collection<ProjectComponent> components = convertValueToComponents(issue, value);
-                issue.setComponentObjects(components);
-            } else if (fieldId.equals(IssueFieldConstants.FIX_FOR_VERSIONS)) {
-                Collection<Version> versions = convertValueToVersions(issue, value);
-                issue.setFixVersions(versions);
-            } else if (fieldId.equals(IssueFieldConstants.THUMBNAIL)) {
-                throw new UnsupportedOperationException("Not implemented");
-
-                //				// Not implemented, yet.
-                //				isEmpty = true;
-            } else if (fieldId.equals(IssueFieldConstants.ISSUE_TYPE)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				retVal = issue.getIssueTypeObject();
-            } else if (fieldId.equals(IssueFieldConstants.TIMETRACKING)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				// Not implemented, yet.
-                //				isEmpty = true;
-            } else if (fieldId.equals(IssueFieldConstants.ISSUE_LINKS)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				retVal = ComponentManager.getInstance().getIssueLinkManager().getIssueLinks(issue.getId());
-            } else if (fieldId.equals(IssueFieldConstants.WORKRATIO)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				retVal = String.valueOf(WorkRatio.getWorkRatio(issue));
-            } else if (fieldId.equals(IssueFieldConstants.ISSUE_KEY)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				retVal = issue.getKey();
-            } else if (fieldId.equals(IssueFieldConstants.SUBTASKS)) {
-                throw new UnsupportedOperationException("Not implemented");
-                //
-                //				retCollection = issue.getSubTasks();
-                //				if(retCollection==null || retCollection.isEmpty()){
-                //					isEmpty = true;
-                //				}else{
-                //					retVal = retCollection;
-                //				}
-            } else if (fieldId.equals(IssueFieldConstants.PRIORITY)) {
-                if (value == null) {
-                    issue.setPriorityObject(null);
-                } else {
-                    Priority priority = convertValueToPriority(value);
-                    if (priority != null) {
-                        issue.setPriorityObject(priority);
-                    } //else leave it untouched.
-                }
-            } else if (fieldId.equals(IssueFieldConstants.RESOLUTION)) {
-                if (value == null) {
-                    issue.setResolutionObject(null);
-                } else if (value instanceof Resolution) {
-                    issue.setResolutionId(((Resolution) value).getId());
-                } else {
-                    Collection<Resolution> resolutions = ComponentManager.getInstance().getConstantsManager().getResolutionObjects();
-                    Resolution resolution = null;
-                    String s = value.toString().trim();
-
-                    for (Resolution r : resolutions) {
-                        if (r.getName().equalsIgnoreCase(s)) {
-                            resolution = r;
+            switch (plan.systemTarget) {
+                case NOT_IMPLEMENTED:
+                    // Attachments, comments, thumbnails, issue type, time tracking, links,
+                    // work ratio, key and sub-tasks can not be set.
+                    throw new UnsupportedOperationException("Not implemented");
+                case AFFECTED_VERSIONS:
+                    issue.setAffectedVersions(convertValueToVersions(issue, value));
+                    break;
+                case COMPONENTS:
+                    issue.setComponentObjects(convertValueToComponents(issue, value));
+                    break;
+                case FIX_FOR_VERSIONS:
+                    issue.setFixVersions(convertValueToVersions(issue, value));
+                    break;
+                case PRIORITY:
+                    if (value == null) {
+                        issue.setPriorityObject(null);
+                    } else {
+                        Priority priority = convertValueToPriority(value);
+                        if (priority != null) {
+                            issue.setPriorityObject(priority);
+                        } //else leave it untouched.
+                    }
+                    break;
+                case RESOLUTION:
+                    if (value == null) {
+                        issue.setResolutionObject(null);
+                    } else if (value instanceof Resolution) {
+                        issue.setResolutionId(((Resolution) value).getId());
+                    } else {
+                        Resolution resolution = issueConstantIndex.getResolution(value.toString().trim());
 
-                            break;
+                        if (resolution != null) {
+                            issue.setResolutionId(resolution.getId());
+                        } else {
+                            throw new IllegalArgumentException("Unable to find resolution with name \"" + value + "\"");
                         }
                     }
-
-                    if (resolution != null) {
-                        issue.setResolutionId(resolution.getId());
+                    break;
+                case STATUS:
+                    if (value == null) {
+                        issue.setStatusObject(null);
+                    } else if (value instanceof Status) {
+                        issue.setStatusId(((Status) value).getId());
                     } else {
-                        throw new IllegalArgumentException("Unable to find resolution with name \"" + value + "\"");
-                    }
-                }
-            } else if (fieldId.equals(IssueFieldConstants.STATUS)) {
-                if (value == null) {
-                    issue.setStatusObject(null);
-                } else if (value instanceof Status) {
-                    issue.setStatusId(((Status) value).getId());
-                } else {
-                    Status status = ComponentManager.getInstance().getConstantsManager().getStatusByName(value.toString());
+                        Status status = issueConstantIndex.getStatus(value.toString());
 
-                    if (status != null) {
-                        issue.setStatusObject(status);
-                    } else {
-                        throw new IllegalArgumentException("Unable to find status with name \"" + value + "\"");
+                        if (status != null) {
+                            issue.setStatusObject(status);
+                        } else {
+                            throw new IllegalArgumentException("Unable to find status with name \"" + value + "\"");
+                        }
                     }
-                }
-            } else if (fieldId.equals(IssueFieldConstants.SECURITY)) {
-                if (value == null) {
-                    issue.setSecurityLevelId(null);
-                } else if (value instanceof Long) {
-                    issue.setSecurityLevelId((Long) value);
-                } else {
-                    Collection<IssueSecurityLevel> levels;
-                    levels = issueSecurityLevelManager.getIssueSecurityLevelsByName(value.toString());
+                    break;
+                case SECURITY:
+                    if (value == null) {
+                        issue.setSecurityLevelId(null);
+                    } else if (value instanceof Long) {
+                        issue.setSecurityLevelId((Long) value);
+                    } else {
+                        Collection<IssueSecurityLevel> levels = issueConstantIndex.getSecurityLevels(value.toString());
 
-                    if (levels == null) {
-                        throw new IllegalArgumentException("Unable to find security level \"" + value + "\"");
-                    }
+                        if (levels == null) {
+                            throw new IllegalArgumentException("Unable to find security level \"" + value + "\"");
+                        }
 
-                    if (levels.size() > 1) {
-                        throw new IllegalArgumentException("More that one security level with name \"" + value + "\"");
-                    }
+                        if (levels.size() > 1) {
+                            throw new IllegalArgumentException("More that one security level with name \"" + value + "\"");
+                        }
 
-                    issue.setSecurityLevelId(levels.iterator().next().getId());
-                }
-            } else if (fieldId.equals(IssueFieldConstants.ASSIGNEE)) {
-                User user = convertApplicationUserToCrowdEmbeddedUser(convertValueToUser(value));
-                issue.setAssignee(user);
-            } else if (fieldId.equals(IssueFieldConstants.DUE_DATE)) {
-                if (value == null) {
-                    issue.setDueDate(null);
-                }
+                        issue.setSecurityLevelId(levels.iterator().next().getId());
+                    }
+                    break;
+                case ASSIGNEE:
+                    issue.setAssignee(convertApplicationUserToCrowdEmbeddedUser(convertValueToUser(value)));
+                    break;
+                case DUE_DATE:
+                    if (value == null) {
+                        issue.setDueDate(null);
+                    }
 
-                if (value instanceof Timestamp) {
-                    issue.setDueDate((Timestamp) value);
-                } else if (value instanceof String) {
-                    SimpleDateFormat formatter = new SimpleDateFormat(
-                            applicationProperties.getDefaultString(APKeys.JIRA_DATE_TIME_PICKER_JAVA_FORMAT)
-                    );
+                    if (value instanceof Timestamp) {
+                        issue.setDueDate((Timestamp) value);
+                    } else if (value instanceof String) {
+                        DateFormat formatter = getDateFormat(
+                                applicationProperties.getDefaultString(APKeys.JIRA_DATE_TIME_PICKER_JAVA_FORMAT)
+                        );
 
-                    try {
-                        Date date = formatter.parse((String) value);
+                        try {
+                            Date date = formatter.parse((String) value);
 
-                        if (date != null) {
-                            issue.setDueDate(new Timestamp(date.getTime()));
-                        } else {
-                            issue.setDueDate(null);
+                            if (date != null) {
+                                issue.setDueDate(new Timestamp(date.getTime()));
+                            } else {
+                                issue.setDueDate(null);
+                            }
+                        } catch (ParseException e) {
+                            throw new IllegalArgumentException("Wrong date format exception for \"" + value + "\"");
                         }
-                    } catch (ParseException e) {
-                        throw new IllegalArgumentException("Wrong date format exception for \"" + value + "\"");
                     }
-                }
-            } else if (fieldId.equals(IssueFieldConstants.REPORTER)) {
-                User user =  convertApplicationUserToCrowdEmbeddedUser(convertValueToUser(value));
-                issue.setReporter(user);
-            } else if (fieldId.equals(IssueFieldConstants.SUMMARY)) {
-                if ((value == null) || (value instanceof String)) {
-                    issue.setSummary((String) value);
-                } else {
-                    issue.setSummary(value.toString());
-                }
-            } else if (fieldId.equals(IssueFieldConstants.DESCRIPTION)) {
-                if ((value == null) || (value instanceof String)) {
-                    issue.setDescription((String) value);
-                } else {
-                    issue.setDescription(convertToString(value));
-//                    issue.setDescription(value.toString());
-                }
-            } else if (fieldId.equals(IssueFieldConstants.ENVIRONMENT)) {
-                if ((value == null) || (value instanceof String)) {
-                    issue.setEnvironment((String) value);
-                } else {
-                    issue.setEnvironment(value.toString());
-                }
+                    break;
+                case REPORTER:
+                    issue.setReporter(convertApplicationUserToCrowdEmbeddedUser(convertValueToUser(value)));
+                    break;
+                case SUMMARY:
+                    if ((value == null) || (value instanceof String)) {
+                        issue.setSummary((String) value);
+                    } else {
+                        issue.setSummary(value.toString());
+                    }
+                    break;
+                case DESCRIPTION:
+                    if ((value == null) || (value instanceof String)) {
+                        issue.setDescription((String) value);
+                    } else {
+                        issue.setDescription(convertToString(value));
+                    }
+                    break;
+                case ENVIRONMENT:
+                    if ((value == null) || (value instanceof String)) {
+                        issue.setEnvironment((String) value);
+                    } else {
+                        issue.setEnvironment(value.toString());
+                    }
+                    break;
+                default:
+                    log.error("Issue field \"" + fieldId + "\" is not supported for setting.");
+            }
+        }
+    }
+
+    /**
+     * @return how values are written to the field, decided at the first write.
+     */
+    private FieldWritePlan getWritePlan(Field field) {
+        FieldWritePlan plan = writePlans.get(field.getId());
+
+        if (plan == null) {
+            if (fieldManager.isCustomField(field)) {
+                plan = new FieldWritePlan(
+                        ((CustomField) field).getCustomFieldType(),
+                        fieldCollectionsUtils.getAllDateFields().contains(field)
+                );
             } else {
-                log.error("Issue field \"" + fieldId + "\" is not supported for setting.");
+                plan = new FieldWritePlan(field.getId());
             }
+
+            writePlans.put(field.getId(), plan);
+        }
+
+        return plan;
+    }
+
+    /**
+     * @return a date format of the thread for the pattern, formats are not thread safe.
+     */
+    private static DateFormat getDateFormat(String pattern) {
+        Map<String, DateFormat> formats = DATE_FORMATS.get();
+        DateFormat format = formats.get(pattern);
+
+        if (format == null) {
+            format = new SimpleDateFormat(pattern);
+
+            formats.put(pattern, format);
         }
+
+        return format;
     }
 
     private Set<String> convertToSetForLabels(String newValue) {
         Set<String> set = new HashSet<String>();
-        StringTokenizer st = new StringTokenizer(newValue," ");
-        while(st.hasMoreTokens()) {
-            set.add(st.nextToken());
+        for (String label : SPACE.split(newValue)) {
+            if (label.length() > 0) {
+                set.add(label);
+            }
         }
         return set;
     }
@@ -728,20 +588,10 @@ public class WorkflowUtils {
     }
 
     private Option convertStringToOption(Issue issue, CustomField customField, String value) {
-        FieldConfig relevantConfig = customField.getRelevantConfig(issue);
-        List<Option> options = optionsManager.findByOptionValue(value);
-        if (options.size() == 0) {
-            try {
-                Long optionId = Long.parseLong(value);
-                Option option = optionsManager.findByOptionId(optionId);
-                options = Collections.singletonList(option);
-            } catch (NumberFormatException e) { /* IllegalArgumentException will be thrown at end of this method. */ }
-        }
-        for (Option option : options) {
-            FieldConfig fieldConfig = option.getRelatedCustomField();
-            if (relevantConfig != null && relevantConfig.equals(fieldConfig)) {
-                return option;
-            }
+        Option option = optionIndex.getOption(customField.getRelevantConfig(issue), value);
+
+        if (option != null) {
+            return option;
         }
         throw new IllegalArgumentException("No option found with value '" + value + "' for custom field " + customField.getName() + " on issue " + issue.getKey() + ".");
     }
@@ -829,31 +679,12 @@ public class WorkflowUtils {
             return null;
         }
 
-        Priority priority;
         if (value instanceof Priority) {
             return (Priority) value;
         } else {
-            String priorityAsString = value.toString();
-            priority = priorityManager.getPriority(priorityAsString);
-            if (priority == null) {
-                for (Priority searchPriority : priorityManager.getPriorities()) {
-                    if (priorityAsString.equals(searchPriority.getName())) {
-                        priority = searchPriority;
-                        break;
-                    }
-                }
-            }
-            if (priority == null) {
-                String defaultLocale = applicationProperties.getDefaultLocale().toString();
-                for (Priority searchPriority : priorityManager.getPriorities()) {
-                    if (priorityAsString.equals(searchPriority.getNameTranslation(defaultLocale))) {
-                        priority = searchPriority;
-                        break;
-                    }
-                }
-            }
+            // By id, by name, or by name in the default language.
+            return issueConstantIndex.getPriority(value.toString());
         }
-        return priority;
     }
 
     private HashMap convertOptionToCascadingSelect(Option option) {
@@ -991,17 +822,25 @@ public class WorkflowUtils {
      *
      */
     public List<Field> getFields(String strFields, String splitter) {
-        String[] fields = strFields.split("\\Q" + splitter + "\\E");
-        List<Field> fieldList = new ArrayList<Field>(fields.length);
+        List<Field> fieldList;
 
-        for (String s : fields) {
-            final Field field = fieldManager.getField(s);
+        if (SPLITTER.equals(splitter)) {
+            fieldList = new ArrayList<Field>(Arrays.asList(fieldResolver.getFields(strFields)));
+        } else {
+            String[] fields = strFields.split("\\Q" + splitter + "\\E");
+
+            fieldList = new ArrayList<Field>(fields.length);
 
-            if (field != null) {
-                fieldList.add(field);
+            for (String s : fields) {
+                final Field field = fieldManager.getField(s);
+
+                if (field != null) {
+                    fieldList.add(field);
+                }
             }
         }
 
+        // Names depend on the language of the user, so the order is not cached.
         return fieldCollectionsUtils.sortFields(fieldList);
     }
 
@@ -0,0 +1,75 @@
+package com.googlecode.jsu.workflow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.atlassian.jira.plugin.workflow.AbstractWorkflowPluginFactory;
+import com.atlassian.jira.plugin.workflow.WorkflowPluginConditionFactory;
+import com.googlecode.jsu.workflow.condition.ExpressionCondition;
+import com.googlecode.jsu.workflow.condition.expression.CompiledExpressions;
+import com.opensymphony.workflow.loader.AbstractDescriptor;
+import com.opensymphony.workflow.loader.ConditionDescriptor;
+
+/**
+ * This class defines the parameters available for Expression Condition.
+ */
+public class WorkflowExpressionConditionPluginFactory extends
+        AbstractWorkflowPluginFactory implements WorkflowPluginConditionFactory {
+
+    private final CompiledExpressions compiledExpressions;
+
+    public WorkflowExpressionConditionPluginFactory(CompiledExpressions compiledExpressions) {
+        this.compiledExpressions = compiledExpressions;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.workflow.AbstractWorkflowPluginFactory#getVelocityParamsForInput(java.util.Map)
+     */
+    protected void getVelocityParamsForInput(Map<String, Object> velocityParams) {
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.workflow.AbstractWorkflowPluginFactory#getVelocityParamsForEdit(java.util.Map, com.opensymphony.workflow.loader.AbstractDescriptor)
+     */
+    protected void getVelocityParamsForEdit(
+            Map<String, Object> velocityParams, AbstractDescriptor descriptor
+    ) {
+        getVelocityParamsForInput(velocityParams);
+        getVelocityParamsForView(velocityParams, descriptor);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.workflow.AbstractWorkflowPluginFactory#getVelocityParamsForView(java.util.Map, com.opensymphony.workflow.loader.AbstractDescriptor)
+     */
+    protected void getVelocityParamsForView(Map<String, Object> velocityParams, AbstractDescriptor descriptor) {
+        ConditionDescriptor conditionDescriptor = (ConditionDescriptor) descriptor;
+        Map args = conditionDescriptor.getArgs();
+
+        String expression = (String) args.get(ExpressionCondition.EXPRESSION);
+
+        velocityParams.put("val-expression", expression);
+
+        try {
+            compiledExpressions.compile(expression);
+        } catch (IllegalArgumentException e) {
+            velocityParams.put("val-errorMessage", e.getMessage());
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.jsu.workflow.WorkflowPluginFactory#getDescriptorParams(java.util.Map)
+     */
+    public Map<String, ?> getDescriptorParams(Map<String, Object> conditionParams) {
+        Map<String, Object> params = new HashMap<String, Object>();
+
+        try {
+            String expression = extractSingleParam(conditionParams, ExpressionCondition.EXPRESSION);
+
+            params.put(ExpressionCondition.EXPRESSION, expression);
+        } catch(IllegalArgumentException iae) {
+            // Aggregate so that Transitions can be added.
+        }
+
+        return params;
+    }
+}
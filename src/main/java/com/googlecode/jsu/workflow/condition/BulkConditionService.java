@@ -0,0 +1,125 @@
+package com.googlecode.jsu.workflow.condition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.util.UserManager;
+import com.googlecode.jsu.util.GroupMembershipCache;
+import com.googlecode.jsu.util.RoleMembershipCache;
+import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.workflow.condition.expression.CompiledExpressions;
+import com.opensymphony.workflow.Condition;
+import com.opensymphony.workflow.basic.BasicWorkflowContext;
+
+/**
+ * Evaluates a condition of the plugin for many issues at once, for example to know which
+ * transitions of the cards of a board are available, without walking the workflow of each issue.
+ *
+ * Work which does not depend on the issue is done once per batch: membership of groups is
+ * checked once, membership of roles once per project, and fields, checkers and expressions
+ * are resolved once. Field values read for an issue are shared by the conditions through
+ * the same transient variables as in a workflow request.
+ */
+public class BulkConditionService {
+    public static final String VALUE_FIELD = "valueField";
+    public static final String EXPRESSION = "expression";
+    public static final String USER_IN_ANY_GROUPS = "userInAnyGroups";
+    public static final String USER_IN_ANY_ROLES = "userInAnyRoles";
+    public static final String USER_IN_CUSTOM_FIELD = "userInCustomField";
+
+    private static final Logger log = LoggerFactory.getLogger(BulkConditionService.class);
+
+    private final Map<String, Condition> conditions = new HashMap<String, Condition>();
+
+    public BulkConditionService(WorkflowUtils workflowUtils,
+                                UserManager userManager,
+                                GroupMembershipCache groupMembershipCache,
+                                RoleMembershipCache roleMembershipCache,
+                                ValueFieldConditionPlans valueFieldConditionPlans,
+                                CompiledExpressions compiledExpressions) {
+        // Conditions keep no state between calls, so they are shared by all batches.
+        conditions.put(VALUE_FIELD, new ValueFieldCondition(workflowUtils, valueFieldConditionPlans));
+        conditions.put(EXPRESSION, new ExpressionCondition(workflowUtils, compiledExpressions));
+        conditions.put(USER_IN_ANY_GROUPS, new UserIsInAnyGroupsCondition(userManager, groupMembershipCache));
+        conditions.put(USER_IN_ANY_ROLES, new UserIsInAnyRolesCondition(userManager, roleMembershipCache));
+        conditions.put(USER_IN_CUSTOM_FIELD, new UserIsInCustomFieldCondition(userManager, workflowUtils));
+    }
+
+    /**
+     * @param user the user executing the transitions, null for anonymous.
+     * @param type one of the condition types of this class.
+     * @param args arguments of the condition, as stored in the workflow descriptor.
+     * @param issues issues to evaluate.
+     * @return the result of the condition for each issue, in the order of the issues.
+     * @throws IllegalArgumentException if the type is not known.
+     */
+    public Map<Issue, Boolean> evaluate(ApplicationUser user, String type,
+                                        Map<String, String> args, Collection<Issue> issues) {
+        Condition condition = conditions.get(type);
+
+        if (condition == null) {
+            throw new IllegalArgumentException("Unknown condition type '" + type + "'");
+        }
+
+        Map<String, Object> transientVars = new HashMap<String, Object>();
+        Map<Issue, Boolean> results = new LinkedHashMap<Issue, Boolean>();
+        Map<Long, Boolean> projects = new HashMap<Long, Boolean>();
+        Boolean anyIssue = null;
+
+        transientVars.put("context", new BasicWorkflowContext((user != null) ? user.getKey() : null));
+
+        for (Issue issue : issues) {
+            Boolean result;
+
+            if (USER_IN_ANY_GROUPS.equals(type)) {
+                // Groups do not depend on the issue.
+                if (anyIssue == null) {
+                    anyIssue = passes(condition, transientVars, args, issue);
+                }
+
+                result = anyIssue;
+            } else if (USER_IN_ANY_ROLES.equals(type)) {
+                // Roles depend only on the project of the issue.
+                Long projectId = issue.getProjectObject().getId();
+
+                result = projects.get(projectId);
+
+                if (result == null) {
+                    result = passes(condition, transientVars, args, issue);
+
+                    projects.put(projectId, result);
+                }
+            } else {
+                result = passes(condition, transientVars, args, issue);
+            }
+
+            results.put(issue, result);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Evaluated condition " + type + " " + args + " for " + results.size() + " issues");
+        }
+
+        return results;
+    }
+
+    private static boolean passes(Condition condition, Map<String, Object> transientVars,
+                                  Map<String, String> args, Issue issue) {
+        transientVars.put("issue", issue);
+
+        try {
+            return condition.passesCondition(transientVars, args, null);
+        } catch (Exception e) {
+            log.warn("Unable to evaluate condition for issue " + issue.getKey(), e);
+
+            return false;
+        }
+    }
+}
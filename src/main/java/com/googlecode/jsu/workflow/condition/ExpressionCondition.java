@@ -0,0 +1,59 @@
+package com.googlecode.jsu.workflow.condition;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.workflow.condition.AbstractJiraCondition;
+import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.workflow.condition.expression.CompiledExpression;
+import com.googlecode.jsu.workflow.condition.expression.CompiledExpressions;
+import com.opensymphony.module.propertyset.PropertySet;
+
+/**
+ * This condition evaluates a boolean expression of field comparisons, like
+ * <code>priority = Blocker AND (components = Server OR labels = urgent)</code>.
+ */
+public class ExpressionCondition extends AbstractJiraCondition {
+    public static final String EXPRESSION = "expression";
+
+    private final Logger log = LoggerFactory.getLogger(ExpressionCondition.class);
+
+    private final WorkflowUtils workflowUtils;
+    private final CompiledExpressions compiledExpressions;
+
+    public ExpressionCondition(WorkflowUtils workflowUtils, CompiledExpressions compiledExpressions) {
+        this.workflowUtils = workflowUtils;
+        this.compiledExpressions = compiledExpressions;
+    }
+
+    /* (non-Javadoc)
+     * @see com.opensymphony.workflow.Condition#passesCondition(java.util.Map, java.util.Map, com.opensymphony.module.propertyset.PropertySet)
+     */
+    public boolean passesCondition(
+            @SuppressWarnings("rawtypes") Map transientVars,
+            @SuppressWarnings("rawtypes") Map args,
+            PropertySet ps
+    ) {
+        final Issue issue = getIssue(transientVars);
+
+        String text = (String) args.get(EXPRESSION);
+        boolean result = false;
+
+        try {
+            CompiledExpression expression = compiledExpressions.getExpression(text);
+
+            result = expression.evaluate(issue, workflowUtils, transientVars);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Expression " + expression + " for issue " + issue.getKey() + " = " + result);
+            }
+        } catch (Exception e) {
+            log.error("Unable to evaluate expression '" + text + "'", e);
+        }
+
+        return result;
+    }
+}
@@ -1,18 +1,14 @@
 package com.googlecode.jsu.workflow.condition;
 
-import com.atlassian.crowd.embedded.api.CrowdService;
-import com.atlassian.crowd.embedded.api.Group;
-import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.workflow.condition.AbstractJiraCondition;
-import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.util.GroupMembershipCache;
 import com.opensymphony.module.propertyset.PropertySet;
 import com.opensymphony.workflow.WorkflowContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -24,14 +20,12 @@ import java.util.Map;
 public class UserIsInAnyGroupsCondition extends AbstractJiraCondition {
     private static final Logger LOG = LoggerFactory.getLogger(UserIsInAnyGroupsCondition.class);
 
-    private final WorkflowUtils workflowUtils;
     private final UserManager userManager;
-    private final CrowdService crowdService;
+    private final GroupMembershipCache groupMembershipCache;
 
-    public UserIsInAnyGroupsCondition(WorkflowUtils workflowUtils, UserManager userManager, CrowdService crowdService) {
-        this.workflowUtils = workflowUtils;
+    public UserIsInAnyGroupsCondition(UserManager userManager, GroupMembershipCache groupMembershipCache) {
         this.userManager = userManager;
-        this.crowdService = crowdService;
+        this.groupMembershipCache = groupMembershipCache;
     }
 
     /* (non-Javadoc)
@@ -46,31 +40,21 @@ public class UserIsInAnyGroupsCondition extends AbstractJiraCondition {
             ApplicationUser userLogged = userManager.getUserByName(caller);
 
             // If there aren't groups selected, hidGroupsList is equal to "".
-            // And groupsSelected will be an empty collection.
+            // And groupsSelected will be an empty array.
             String strGroupsSelected = (String) args.get("hidGroupsList");
-            Collection<Group> groupsSelected = workflowUtils.getGroups(strGroupsSelected, WorkflowUtils.SPLITTER);
+            String[] groupsSelected = groupMembershipCache.parseGroups(strGroupsSelected);
 
-            for (Group group : groupsSelected) {
+            if ((userLogged != null) && (groupsSelected.length > 0)) {
                 try {
-                    if (crowdService.isUserMemberOfGroup(convertApplicationUserToCrowdEmbeddedUser(userLogged), group)) {
-                        return true;
-                    }
+                    return groupMembershipCache.isMemberOfAny(userLogged.getUsername(), groupsSelected);
                 } catch (Exception e) {
                     //see JSUTIL-68
+                    LOG.warn("Unable to read groups of user " + userLogged.getUsername(), e);
                 }
             }
         }
 
         return false;
     }
-    /**
-     * This ist deprecated because Atlassian API is not working with ApplicationUser
-     * As soon as this is working this method can be deleted
-     */
-    @Deprecated
-    private User convertApplicationUserToCrowdEmbeddedUser(ApplicationUser applicationUser){
-        return userManager.getUserObject(applicationUser.getUsername());
-    }
-
 
 }
@@ -1,18 +1,14 @@
 package com.googlecode.jsu.workflow.condition;
 
-import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.issue.Issue;
-import com.atlassian.jira.security.roles.ProjectRole;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.workflow.condition.AbstractJiraCondition;
-import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.util.RoleMembershipCache;
 import com.opensymphony.module.propertyset.PropertySet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -21,14 +17,12 @@ import java.util.Map;
 public class UserIsInAnyRolesCondition extends AbstractJiraCondition {
     private static final Logger LOG = LoggerFactory.getLogger(UserIsInAnyRolesCondition.class);
 
-    private final WorkflowUtils workflowUtils;
     private final UserManager userManager;
-    private final ProjectRoleManager projectRoleManager;
+    private final RoleMembershipCache roleMembershipCache;
 
-    public UserIsInAnyRolesCondition(WorkflowUtils workflowUtils, UserManager userManager, ProjectRoleManager projectRoleManager) {
-        this.workflowUtils = workflowUtils;
+    public UserIsInAnyRolesCondition(UserManager userManager, RoleMembershipCache roleMembershipCache) {
         this.userManager = userManager;
-        this.projectRoleManager = projectRoleManager;
+        this.roleMembershipCache = roleMembershipCache;
     }
 
     /* (non-Javadoc)
@@ -43,31 +37,19 @@ public class UserIsInAnyRolesCondition extends AbstractJiraCondition {
             ApplicationUser userLogged = userManager.getUserByName(caller);
 
             // If there aren't roles selected, hidRolesList is equal to "".
-            // And rolesSelected will be an empty collection.
+            // And rolesSelected will be an empty array.
             String strRolesSelected = (String) args.get("hidRolesList");
-            Collection<ProjectRole> rolesSelected = workflowUtils.getRoles(strRolesSelected, WorkflowUtils.SPLITTER);
+            long[] rolesSelected = roleMembershipCache.parseRoles(strRolesSelected);
 
-            for (ProjectRole role : rolesSelected) {
-                try {
-                    if(projectRoleManager.isUserInProjectRole(userLogged, role, issue.getProjectObject())) {
-                        return true;
-                    }
-                } catch (Exception e) {
-                    //see JSUTIL-68
-                }
+            try {
+                return roleMembershipCache.isInAnyRole(transientVars, userLogged, issue.getProjectObject(), rolesSelected);
+            } catch (Exception e) {
+                //see JSUTIL-68
+                LOG.warn("Unable to read roles of user " + caller, e);
             }
         }
 
         return false;
     }
-    /**
-     * This ist deprecated because Atlassian API is not working with ApplicationUser
-     * As soon as this is working this method can be deleted
-     */
-    @Deprecated
-    private User convertApplicationUserToCrowdEmbeddedUser(ApplicationUser applicationUser){
-        return userManager.getUserObject(applicationUser.getUsername());
-    }
-
 
 }
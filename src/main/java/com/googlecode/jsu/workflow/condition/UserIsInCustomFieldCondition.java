@@ -13,6 +13,7 @@ import com.atlassian.jira.issue.Issue;
 import com.atlassian.jira.issue.fields.Field;
 import com.atlassian.jira.user.util.UserManager;
 import com.atlassian.jira.workflow.condition.AbstractJiraCondition;
+import com.googlecode.jsu.util.FieldValueMemo;
 import com.googlecode.jsu.util.WorkflowUtils;
 import com.opensymphony.module.propertyset.PropertySet;
 import com.opensymphony.workflow.WorkflowContext;
@@ -57,7 +58,7 @@ public class UserIsInCustomFieldCondition extends AbstractJiraCondition {
         Field field = workflowUtils.getFieldFromKey(fieldKey);
         Issue issue = getIssue(transientVars);
 
-        Object fieldValue = workflowUtils.getFieldValueFromIssue(issue, field);
+        Object fieldValue = FieldValueMemo.get(transientVars).getFieldValue(workflowUtils, issue, field, false);
 
         if (fieldValue != null) {
             if (fieldValue instanceof Collection) {
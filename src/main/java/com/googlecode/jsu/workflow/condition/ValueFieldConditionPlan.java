@@ -0,0 +1,259 @@
+package com.googlecode.jsu.workflow.condition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.atlassian.jira.issue.customfields.option.LazyLoadedOption;
+import com.atlassian.jira.issue.fields.Field;
+import com.atlassian.jira.issue.status.Status;
+import com.googlecode.jsu.helpers.ComparisonType;
+import com.googlecode.jsu.helpers.ConditionChecker;
+import com.googlecode.jsu.helpers.ConditionCheckerFactory;
+import com.googlecode.jsu.helpers.ConditionType;
+import com.googlecode.jsu.helpers.PreparedValue;
+import com.googlecode.jsu.helpers.checkers.ConverterString;
+import com.googlecode.jsu.util.WorkflowUtils;
+
+/**
+ * Everything {@link ValueFieldCondition} needs from its arguments, resolved once: the comparison,
+ * the checkers and the value to compare already converted. Evaluating the condition then only
+ * reads and converts the value of the issue.
+ *
+ * The field is kept by id and resolved at each evaluation, because JIRA replaces custom field
+ * objects when their configuration changes.
+ */
+public final class ValueFieldConditionPlan {
+    private static final ConverterString CONVERTER_STRING = new ConverterString();
+
+    private final String fieldId;
+    private final WorkflowUtils workflowUtils;
+    private final ComparisonType comparison;
+    private final ConditionType condition;
+    private final boolean optionId;
+    private final String valueForCompare;
+    private final ConditionChecker checker;
+    private final PreparedValue preparedValue;
+    private final ConditionChecker equalChecker;
+    private final PreparedValue preparedEqualValue;
+
+    /** Equal or not equal on strings, collection is checked by {@link #containsEqual(Collection)}. */
+    private final boolean membership;
+    private final String equalValue;
+    private final boolean numericOptionId;
+    private final long optionIdValue;
+
+    ValueFieldConditionPlan(ValueFieldConditionPlanKey key,
+                            ConditionCheckerFactory conditionCheckerFactory, WorkflowUtils workflowUtils) {
+        ComparisonType comparison = conditionCheckerFactory.findComparisonById(key.getComparisonType());
+
+        this.fieldId = key.getFieldId();
+        this.workflowUtils = workflowUtils;
+
+        // Fails early if the field does not exist.
+        workflowUtils.getFieldFromKey(fieldId);
+
+        this.condition = conditionCheckerFactory.findConditionById(key.getConditionId());
+        this.valueForCompare = key.getFieldValue();
+
+        //special case Option, behave like String comparison, however compare id of option to value of input
+        this.optionId = ConditionCheckerFactory.OPTIONID.equals(comparison);
+        this.comparison = optionId ? ConditionCheckerFactory.STRING : comparison;
+
+        this.checker = conditionCheckerFactory.getChecker(this.comparison, condition);
+        this.preparedValue = checker.prepare(valueForCompare);
+        this.equalChecker = conditionCheckerFactory.getChecker(this.comparison, ConditionCheckerFactory.EQUAL);
+        this.preparedEqualValue = equalChecker.prepare(valueForCompare);
+
+        this.membership = ConditionCheckerFactory.STRING.equals(this.comparison) &&
+                (ConditionCheckerFactory.EQUAL.equals(condition) ||
+                 ConditionCheckerFactory.NOT_EQUAL.equals(condition));
+        this.equalValue = StringUtils.isBlank(valueForCompare) ? null : valueForCompare;
+
+        long parsedOptionId = 0;
+        boolean numeric = false;
+
+        if (optionId && (equalValue != null)) {
+            try {
+                parsedOptionId = Long.parseLong(equalValue);
+                // Ids are compared as strings, so "010" is not the option 10.
+                numeric = Long.toString(parsedOptionId).equals(equalValue);
+            } catch (NumberFormatException e) {
+                numeric = false;
+            }
+        }
+
+        this.numericOptionId = numeric;
+        this.optionIdValue = parsedOptionId;
+    }
+
+    public String getFieldId() {
+        return fieldId;
+    }
+
+    /**
+     * @return the current field of the plan.
+     * @throws IllegalArgumentException if the field does not exist any more.
+     */
+    public Field getField() {
+        return workflowUtils.getFieldFromKey(fieldId);
+    }
+
+    /**
+     * @return the comparison, OptionID is replaced by String.
+     */
+    public ComparisonType getComparison() {
+        return comparison;
+    }
+
+    public ConditionType getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return true if option ids are compared instead of option values.
+     */
+    public boolean isOptionId() {
+        return optionId;
+    }
+
+    public String getValueForCompare() {
+        return valueForCompare;
+    }
+
+    /**
+     * Checks a value of the issue, as read with
+     * {@link WorkflowUtils#getFieldValueFromIssue(com.atlassian.jira.issue.Issue, Field, boolean)}.
+     */
+    public boolean evaluate(Object fieldValue) {
+        //multiple values slightly different, equal means contains, not equal means does not contain
+        if ((fieldValue instanceof Collection) && membership) {
+            // Labels, components or options are compared in one pass.
+            boolean result = containsEqual((Collection<?>) fieldValue);
+
+            return condition.equals(ConditionCheckerFactory.NOT_EQUAL) ? !result : result;
+        }
+
+        if (optionId) {
+            fieldValue = getOptionId(fieldValue);
+        }
+
+        if (fieldValue instanceof Collection) {
+            if(condition.equals(ConditionCheckerFactory.NOT_EQUAL)) {
+                return checkCollectionDoesNotContain((Collection)fieldValue);
+            } else {
+                return checkCollection((Collection)fieldValue);
+            }
+        }
+
+        return check(fieldValue);
+    }
+
+    /**
+     * @return true if the issue value is compared with the condition of the plan.
+     */
+    public boolean check(Object fieldValue) {
+        return checker.checkPrepared(fieldValue, preparedValue);
+    }
+
+    /**
+     * @return true if the issue value is equal to the value to compare.
+     */
+    public boolean checkEqual(Object fieldValue) {
+        return equalChecker.checkPrepared(fieldValue, preparedEqualValue);
+    }
+
+    /**
+     * @return true if a collection value is checked with {@link #containsEqual(Collection)}:
+     * equal means contains, not equal means does not contain.
+     */
+    public boolean isMembership() {
+        return membership;
+    }
+
+    /**
+     * Same result as checking each element with {@link #checkEqual(Object)}, in a single pass
+     * comparing strings or option ids, without converting elements into comparables. For
+     * option ids the raw field value is expected, only its options are taken into account.
+     *
+     * @return true if an element is equal to the value to compare, or if there are no elements
+     * and the value to compare is empty.
+     */
+    public boolean containsEqual(Collection<?> values) {
+        boolean empty = true;
+
+        for (Object value : values) {
+            if (optionId) {
+                if (!(value instanceof LazyLoadedOption)) {
+                    continue;
+                }
+
+                empty = false;
+
+                Long id = ((LazyLoadedOption) value).getOptionId();
+
+                if (numericOptionId && (id != null) && (id.longValue() == optionIdValue)) {
+                    return true;
+                }
+            } else {
+                empty = false;
+
+                String s = CONVERTER_STRING.convert(value);
+
+                if (StringUtils.isBlank(s)) {
+                    s = null;
+                }
+
+                if ((equalValue == null) ? (s == null) : equalValue.equals(s)) {
+                    return true;
+                }
+            }
+        }
+
+        return empty && ((valueForCompare == null) || valueForCompare.isEmpty());
+    }
+
+    private Object getOptionId(Object fieldValue) {
+        if(fieldValue instanceof LazyLoadedOption) {
+            return ((LazyLoadedOption)fieldValue).getOptionId().toString();
+        } else  if(fieldValue instanceof Status) {
+            return ((Status)fieldValue).getId();
+        } else if(fieldValue instanceof Collection) {
+            ArrayList<String> al = new ArrayList<String>();
+            for(Object v:(Collection)fieldValue) {
+                if(v instanceof LazyLoadedOption) {
+                    al.add(((LazyLoadedOption)v).getOptionId().toString());
+                }
+            }
+            return al;
+        }
+
+        //TODO cascados ?? und doc obiges
+
+        return fieldValue;
+    }
+
+    //ensures that given value to compare is not within the collection items
+    private boolean checkCollectionDoesNotContain(Collection values) {
+        return !checkCollection(values, true);
+    }
+
+    //if only one single item fulfils the condition, will return
+    private boolean checkCollection(Collection values) {
+        return checkCollection(values, false);
+    }
+
+    private boolean checkCollection(Collection values, boolean equal) {
+        String valueToCompare = valueForCompare;
+        boolean result = false;
+
+        for (Object o : values) {
+            result = equal ? checkEqual(o) : check(o);
+            if (result) {
+                break;
+            }
+        }
+        return values.isEmpty()?valueToCompare==null||valueToCompare.isEmpty():result;
+    }
+}
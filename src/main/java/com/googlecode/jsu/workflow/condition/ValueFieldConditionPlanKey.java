@@ -0,0 +1,93 @@
+package com.googlecode.jsu.workflow.condition;
+
+import java.util.Map;
+
+/**
+ * Arguments of a {@link ValueFieldCondition} which define its plan. Conditions configured in
+ * the same way share the plan, and a published workflow with new arguments gets a new one.
+ */
+final class ValueFieldConditionPlanKey {
+    private final String fieldId;
+    private final String fieldValue;
+    private final String comparisonType;
+    private final String conditionId;
+    private final int hash;
+
+    ValueFieldConditionPlanKey(@SuppressWarnings("rawtypes") Map args) {
+        this.fieldId = (String) args.get("fieldsList");
+        this.fieldValue = (String) args.get("fieldValue");
+        this.comparisonType = (String) args.get("comparisonType");
+        this.conditionId = (String) args.get("conditionList");
+
+        int h = hash(fieldId);
+
+        h = 31 * h + hash(fieldValue);
+        h = 31 * h + hash(comparisonType);
+        h = 31 * h + hash(conditionId);
+
+        this.hash = h;
+    }
+
+    String getFieldId() {
+        return fieldId;
+    }
+
+    String getFieldValue() {
+        return fieldValue;
+    }
+
+    String getComparisonType() {
+        return comparisonType;
+    }
+
+    String getConditionId() {
+        return conditionId;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof ValueFieldConditionPlanKey)) {
+            return false;
+        }
+
+        ValueFieldConditionPlanKey other = (ValueFieldConditionPlanKey) obj;
+
+        return (hash == other.hash) &&
+                equal(fieldId, other.fieldId) &&
+                equal(fieldValue, other.fieldValue) &&
+                equal(comparisonType, other.comparisonType) &&
+                equal(conditionId, other.conditionId);
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[field=" + fieldId + ";value=" + fieldValue +
+                ";comparison=" + comparisonType + ";condition=" + conditionId + "]";
+    }
+
+    private static int hash(String value) {
+        return (value != null) ? value.hashCode() : 0;
+    }
+
+    private static boolean equal(String value1, String value2) {
+        return (value1 == null) ? (value2 == null) : value1.equals(value2);
+    }
+}
@@ -0,0 +1,93 @@
+package com.googlecode.jsu.workflow.condition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.googlecode.jsu.helpers.ConditionCheckerFactory;
+import com.googlecode.jsu.util.WorkflowUtils;
+
+/**
+ * Cache of compiled {@link ValueFieldConditionPlan}s, keyed by the condition arguments.
+ *
+ * Plans are cleared when JIRA clears its caches. Publishing a workflow which changes a condition
+ * changes its arguments, so it gets a new plan; plans no longer used are dropped when the cache
+ * grows over {@value #MAX_SIZE_PROPERTY} entries (default {@value #DEFAULT_MAX_SIZE}).
+ */
+public class ValueFieldConditionPlans implements InitializingBean, DisposableBean {
+    public static final String MAX_SIZE_PROPERTY = "jsu.condition.plans.size";
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(ValueFieldConditionPlans.class);
+
+    private final EventPublisher eventPublisher;
+    private final ConditionCheckerFactory conditionCheckerFactory;
+    private final WorkflowUtils workflowUtils;
+    private final int maxSize;
+    private final ConcurrentMap<ValueFieldConditionPlanKey, ValueFieldConditionPlan> plans =
+            new ConcurrentHashMap<ValueFieldConditionPlanKey, ValueFieldConditionPlan>();
+
+    public ValueFieldConditionPlans(EventPublisher eventPublisher,
+                                    ConditionCheckerFactory conditionCheckerFactory,
+                                    WorkflowUtils workflowUtils) {
+        this.eventPublisher = eventPublisher;
+        this.conditionCheckerFactory = conditionCheckerFactory;
+        this.workflowUtils = workflowUtils;
+        this.maxSize = Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param args the arguments of the condition.
+     * @return the plan of the condition, compiled the first time it is asked for.
+     * @throws IllegalArgumentException if the field of the condition does not exist.
+     */
+    public ValueFieldConditionPlan getPlan(@SuppressWarnings("rawtypes") Map args) {
+        ValueFieldConditionPlanKey key = new ValueFieldConditionPlanKey(args);
+        ValueFieldConditionPlan plan = plans.get(key);
+
+        if (plan == null) {
+            plan = new ValueFieldConditionPlan(key, conditionCheckerFactory, workflowUtils);
+
+            if (plans.size() >= maxSize) {
+                // Plans of old workflow versions are not known, so all of them are dropped.
+                plans.clear();
+            }
+
+            plans.put(key, plan);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Compiled value field condition plan " + key);
+            }
+        }
+
+        return plan;
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        plans.clear();
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        plans.clear();
+    }
+}
@@ -0,0 +1,68 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.atlassian.jira.issue.Issue;
+import com.googlecode.jsu.util.FieldValueMemo;
+import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.workflow.condition.ValueFieldConditionPlans;
+
+/**
+ * Condition expression parsed into a tree of comparisons, with checkers resolved. Fields are
+ * resolved by id at each evaluation, so replaced custom field objects are not used.
+ */
+public final class CompiledExpression {
+    private final String text;
+    private final ExpressionNode root;
+    private final List<String> fieldIds;
+
+    CompiledExpression(String text, ExpressionNode root, List<String> fieldIds) {
+        this.text = text;
+        this.root = root;
+        this.fieldIds = Collections.unmodifiableList(fieldIds);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a field does not exist.
+     */
+    void bind(ValueFieldConditionPlans plans, WorkflowUtils workflowUtils) {
+        for (String fieldId : fieldIds) {
+            workflowUtils.getFieldFromKey(fieldId);
+        }
+
+        root.bind(plans);
+    }
+
+    /**
+     * @param transientVars variables of the workflow request, values read by other conditions
+     * are shared through them. Could be null.
+     * @return true if the issue fulfills the expression. Each field is read at most once.
+     */
+    public boolean evaluate(Issue issue, WorkflowUtils workflowUtils, @SuppressWarnings("rawtypes") Map transientVars) {
+        return root.evaluate(new FieldValues(issue, workflowUtils, FieldValueMemo.get(transientVars), fieldIds));
+    }
+
+    /**
+     * @return the expression as it was written.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return ids of the fields used by the expression.
+     */
+    public List<String> getFieldIds() {
+        return fieldIds;
+    }
+
+    /**
+     * @return the expression with explicit operators precedence and comparison types.
+     */
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.event.ClearCacheEvent;
+import com.googlecode.jsu.util.WorkflowUtils;
+import com.googlecode.jsu.workflow.condition.ValueFieldConditionPlans;
+
+/**
+ * Cache of {@link CompiledExpression}s, keyed by the text of the expression. Like
+ * {@link ValueFieldConditionPlans}, it is cleared when JIRA clears its caches or when it
+ * grows over {@value #MAX_SIZE_PROPERTY} entries (default {@value #DEFAULT_MAX_SIZE}).
+ */
+public class CompiledExpressions implements InitializingBean, DisposableBean {
+    public static final String MAX_SIZE_PROPERTY = "jsu.condition.expressions.size";
+    public static final int DEFAULT_MAX_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledExpressions.class);
+
+    private final EventPublisher eventPublisher;
+    private final ValueFieldConditionPlans valueFieldConditionPlans;
+    private final WorkflowUtils workflowUtils;
+    private final int maxSize;
+    private final ConcurrentMap<String, CompiledExpression> expressions =
+            new ConcurrentHashMap<String, CompiledExpression>();
+
+    public CompiledExpressions(EventPublisher eventPublisher,
+                               ValueFieldConditionPlans valueFieldConditionPlans,
+                               WorkflowUtils workflowUtils) {
+        this.eventPublisher = eventPublisher;
+        this.valueFieldConditionPlans = valueFieldConditionPlans;
+        this.workflowUtils = workflowUtils;
+        this.maxSize = Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param text the expression.
+     * @return the expression, compiled the first time it is asked for.
+     * @throws IllegalArgumentException if the expression is not valid or uses unknown fields.
+     */
+    public CompiledExpression getExpression(String text) {
+        CompiledExpression expression = (text != null) ? expressions.get(text) : null;
+
+        if (expression == null) {
+            expression = compile(text);
+
+            if (expressions.size() >= maxSize) {
+                expressions.clear();
+            }
+
+            expressions.put(text, expression);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Compiled condition expression [" + text + "] as " + expression);
+            }
+        }
+
+        return expression;
+    }
+
+    /**
+     * Compiles the expression without caching it, for checking what users entered.
+     *
+     * @throws IllegalArgumentException if the expression is not valid or uses unknown fields.
+     */
+    public CompiledExpression compile(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Expression is empty");
+        }
+
+        CompiledExpression expression = new ExpressionParser(text).parse();
+
+        expression.bind(valueFieldConditionPlans, workflowUtils);
+
+        return expression;
+    }
+
+    @EventListener
+    public void onClearCache(ClearCacheEvent event) {
+        expressions.clear();
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+     */
+    public void afterPropertiesSet() throws Exception {
+        eventPublisher.register(this);
+    }
+
+    /* (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    public void destroy() throws Exception {
+        eventPublisher.unregister(this);
+        expressions.clear();
+    }
+}
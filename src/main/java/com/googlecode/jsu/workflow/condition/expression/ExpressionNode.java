@@ -0,0 +1,181 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.googlecode.jsu.helpers.ComparisonType;
+import com.googlecode.jsu.helpers.ConditionType;
+import com.googlecode.jsu.workflow.condition.ValueFieldConditionPlan;
+import com.googlecode.jsu.workflow.condition.ValueFieldConditionPlans;
+
+/**
+ * Node of a parsed condition expression. Operators evaluate their operands from left
+ * to right and stop as soon as the result is known.
+ */
+abstract class ExpressionNode {
+    /**
+     * @param values values of the fields of the issue, read when first needed.
+     */
+    abstract boolean evaluate(FieldValues values);
+
+    /**
+     * Resolves fields and checkers of the comparisons.
+     *
+     * @throws IllegalArgumentException if a field does not exist.
+     */
+    abstract void bind(ValueFieldConditionPlans plans);
+
+    static final class And extends ExpressionNode {
+        private final ExpressionNode[] operands;
+
+        And(List<ExpressionNode> operands) {
+            this.operands = operands.toArray(new ExpressionNode[operands.size()]);
+        }
+
+        @Override
+        boolean evaluate(FieldValues values) {
+            for (ExpressionNode operand : operands) {
+                if (!operand.evaluate(values)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        void bind(ValueFieldConditionPlans plans) {
+            for (ExpressionNode operand : operands) {
+                operand.bind(plans);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " AND ");
+        }
+    }
+
+    static final class Or extends ExpressionNode {
+        private final ExpressionNode[] operands;
+
+        Or(List<ExpressionNode> operands) {
+            this.operands = operands.toArray(new ExpressionNode[operands.size()]);
+        }
+
+        @Override
+        boolean evaluate(FieldValues values) {
+            for (ExpressionNode operand : operands) {
+                if (operand.evaluate(values)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        void bind(ValueFieldConditionPlans plans) {
+            for (ExpressionNode operand : operands) {
+                operand.bind(plans);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " OR ");
+        }
+    }
+
+    static final class Not extends ExpressionNode {
+        private final ExpressionNode operand;
+
+        Not(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean evaluate(FieldValues values) {
+            return !operand.evaluate(values);
+        }
+
+        @Override
+        void bind(ValueFieldConditionPlans plans) {
+            operand.bind(plans);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+
+    /**
+     * Comparison of a field with a constant, checked like a Value Field condition.
+     */
+    static final class Comparison extends ExpressionNode {
+        private final String fieldId;
+        private final int slot;
+        private final ConditionType condition;
+        private final ComparisonType comparison;
+        private final String value;
+
+        private ValueFieldConditionPlan plan;
+
+        Comparison(String fieldId, int slot, ConditionType condition, ComparisonType comparison, String value) {
+            this.fieldId = fieldId;
+            this.slot = slot;
+            this.condition = condition;
+            this.comparison = comparison;
+            this.value = value;
+        }
+
+        @Override
+        boolean evaluate(FieldValues values) {
+            return plan.evaluate(values.get(slot));
+        }
+
+        @Override
+        void bind(ValueFieldConditionPlans plans) {
+            Map<String, String> args = new HashMap<String, String>();
+
+            args.put("fieldsList", fieldId);
+            args.put("fieldValue", value);
+            args.put("comparisonType", comparison.getId().toString());
+            args.put("conditionList", condition.getId().toString());
+
+            this.plan = plans.getPlan(args);
+        }
+
+        /**
+         * @return the plan of the comparison, or null before it is bound.
+         */
+        ValueFieldConditionPlan getPlan() {
+            return plan;
+        }
+
+        int getSlot() {
+            return slot;
+        }
+
+        @Override
+        public String toString() {
+            return fieldId + " " + condition.getValue() + " '" + value + "' AS " + comparison.getMnemonic();
+        }
+    }
+
+    private static String join(ExpressionNode[] operands, String operator) {
+        StringBuilder result = new StringBuilder("(");
+
+        for (int i = 0; i < operands.length; i++) {
+            if (i > 0) {
+                result.append(operator);
+            }
+
+            result.append(operands[i]);
+        }
+
+        return result.append(")").toString();
+    }
+}
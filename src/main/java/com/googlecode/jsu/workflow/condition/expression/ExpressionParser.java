@@ -0,0 +1,329 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.googlecode.jsu.helpers.ComparisonType;
+import com.googlecode.jsu.helpers.ConditionCheckerFactory;
+import com.googlecode.jsu.helpers.ConditionType;
+
+/**
+ * Parser of condition expressions:
+ *
+ * <pre>
+ * expression := or
+ * or         := and ( ("OR" | "||") and )*
+ * and        := not ( ("AND" | "&amp;&amp;") not )*
+ * not        := ("NOT" | "!") not | "(" expression ")" | comparison
+ * comparison := field operator value [ "AS" type ]
+ * operator   := "=" | "!=" | "&lt;&gt;" | "&gt;" | "&gt;=" | "&lt;" | "&lt;="
+ * value      := 'quoted' | "quoted" | number | word | "EMPTY"
+ * type       := "String" | "Number" | "OptionID"
+ * </pre>
+ *
+ * Fields are given by their ids, like <code>priority</code> or <code>customfield_10010</code>.
+ * Comparisons are the same as in the Value Field condition: for fields with many values, equal
+ * means contains and not equal means does not contain. Without a type, an unquoted number is
+ * compared as a number and anything else as a string. Keywords are not case sensitive.
+ */
+final class ExpressionParser {
+    private final String text;
+    private final List<Token> tokens;
+    private final Map<String, Integer> slots = new LinkedHashMap<String, Integer>();
+
+    private int position;
+
+    ExpressionParser(String text) {
+        this.text = text;
+        this.tokens = tokenize(text);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is not valid.
+     */
+    CompiledExpression parse() {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Expression is empty");
+        }
+
+        ExpressionNode root = parseOr();
+
+        if (position < tokens.size()) {
+            throw error("Unexpected '" + peek().text + "'", peek());
+        }
+
+        return new CompiledExpression(text, root, new ArrayList<String>(slots.keySet()));
+    }
+
+    private ExpressionNode parseOr() {
+        List<ExpressionNode> operands = new ArrayList<ExpressionNode>();
+
+        operands.add(parseAnd());
+
+        while (acceptKeyword("OR") || accept("||")) {
+            operands.add(parseAnd());
+        }
+
+        return (operands.size() == 1) ? operands.get(0) : new ExpressionNode.Or(operands);
+    }
+
+    private ExpressionNode parseAnd() {
+        List<ExpressionNode> operands = new ArrayList<ExpressionNode>();
+
+        operands.add(parseNot());
+
+        while (acceptKeyword("AND") || accept("&&")) {
+            operands.add(parseNot());
+        }
+
+        return (operands.size() == 1) ? operands.get(0) : new ExpressionNode.And(operands);
+    }
+
+    private ExpressionNode parseNot() {
+        if (acceptKeyword("NOT") || accept("!")) {
+            return new ExpressionNode.Not(parseNot());
+        }
+
+        if (accept("(")) {
+            ExpressionNode node = parseOr();
+
+            expect(")");
+
+            return node;
+        }
+
+        return parseComparison();
+    }
+
+    private ExpressionNode parseComparison() {
+        Token field = next("field");
+
+        if (field.type != TokenType.WORD) {
+            throw error("Field expected instead of '" + field.text + "'", field);
+        }
+
+        Token operator = next("operator");
+        ConditionType condition = (operator.type == TokenType.SYMBOL) ? getCondition(operator.text) : null;
+
+        if (condition == null) {
+            throw error("Operator expected instead of '" + operator.text + "'", operator);
+        }
+
+        Token value = next("value");
+        String constant;
+        ComparisonType comparison;
+
+        if (value.type == TokenType.QUOTED) {
+            constant = value.text;
+            comparison = ConditionCheckerFactory.STRING;
+        } else if (value.type == TokenType.NUMBER) {
+            constant = value.text;
+            comparison = ConditionCheckerFactory.NUMBER;
+        } else if (value.type == TokenType.WORD) {
+            constant = "EMPTY".equalsIgnoreCase(value.text) ? "" : value.text;
+            comparison = ConditionCheckerFactory.STRING;
+        } else {
+            throw error("Value expected instead of '" + value.text + "'", value);
+        }
+
+        if (acceptKeyword("AS")) {
+            Token type = next("type");
+
+            comparison = (type.type == TokenType.WORD) ? getComparison(type.text) : null;
+
+            if (comparison == null) {
+                throw error("Unknown type '" + type.text + "', use String, Number or OptionID", type);
+            }
+        }
+
+        Integer slot = slots.get(field.text);
+
+        if (slot == null) {
+            slot = slots.size();
+
+            slots.put(field.text, slot);
+        }
+
+        return new ExpressionNode.Comparison(field.text, slot, condition, comparison, constant);
+    }
+
+    private static ConditionType getCondition(String operator) {
+        if ("=".equals(operator)) {
+            return ConditionCheckerFactory.EQUAL;
+        } else if ("!=".equals(operator) || "<>".equals(operator)) {
+            return ConditionCheckerFactory.NOT_EQUAL;
+        } else if (">".equals(operator)) {
+            return ConditionCheckerFactory.GREATER;
+        } else if (">=".equals(operator)) {
+            return ConditionCheckerFactory.GREATER_EQUAL;
+        } else if ("<".equals(operator)) {
+            return ConditionCheckerFactory.LESS;
+        } else if ("<=".equals(operator)) {
+            return ConditionCheckerFactory.LESS_EQUAL;
+        }
+
+        return null;
+    }
+
+    /**
+     * Dates are not supported, because values of expression could not be compared with them.
+     */
+    private static ComparisonType getComparison(String name) {
+        if (ConditionCheckerFactory.STRING.getMnemonic().equalsIgnoreCase(name)) {
+            return ConditionCheckerFactory.STRING;
+        } else if (ConditionCheckerFactory.NUMBER.getMnemonic().equalsIgnoreCase(name)) {
+            return ConditionCheckerFactory.NUMBER;
+        } else if (ConditionCheckerFactory.OPTIONID.getMnemonic().equalsIgnoreCase(name)) {
+            return ConditionCheckerFactory.OPTIONID;
+        }
+
+        return null;
+    }
+
+    private Token peek() {
+        return (position < tokens.size()) ? tokens.get(position) : null;
+    }
+
+    private Token next(String expected) {
+        Token token = peek();
+
+        if (token == null) {
+            throw new IllegalArgumentException("Unexpected end of expression, " + expected + " expected");
+        }
+
+        position++;
+
+        return token;
+    }
+
+    private boolean accept(String symbol) {
+        Token token = peek();
+
+        if ((token != null) && (token.type == TokenType.SYMBOL) && token.text.equals(symbol)) {
+            position++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        Token token = peek();
+
+        if ((token != null) && (token.type == TokenType.WORD) && token.text.equalsIgnoreCase(keyword)) {
+            position++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect(String symbol) {
+        Token token = next("'" + symbol + "'");
+
+        if ((token.type != TokenType.SYMBOL) || !token.text.equals(symbol)) {
+            throw error("'" + symbol + "' expected instead of '" + token.text + "'", token);
+        }
+    }
+
+    private static IllegalArgumentException error(String message, Token token) {
+        return new IllegalArgumentException(message + " at position " + (token.start + 1));
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> result = new ArrayList<Token>();
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if ((c == '\'') || (c == '"')) {
+                StringBuilder value = new StringBuilder();
+                int start = i++;
+
+                while ((i < length) && (text.charAt(i) != c)) {
+                    if ((text.charAt(i) == '\\') && (i + 1 < length)) {
+                        i++;
+                    }
+
+                    value.append(text.charAt(i++));
+                }
+
+                if (i >= length) {
+                    throw new IllegalArgumentException("Unterminated string at position " + (start + 1));
+                }
+
+                i++;
+                result.add(new Token(TokenType.QUOTED, value.toString(), start));
+            } else if (Character.isDigit(c) || ((c == '-') && (i + 1 < length) && Character.isDigit(text.charAt(i + 1)))) {
+                int start = i++;
+
+                while ((i < length) && (Character.isDigit(text.charAt(i)) || (text.charAt(i) == '.'))) {
+                    i++;
+                }
+
+                result.add(new Token(TokenType.NUMBER, text.substring(start, i), start));
+            } else if (Character.isLetter(c) || (c == '_')) {
+                int start = i++;
+
+                while ((i < length) && isWordPart(text.charAt(i))) {
+                    i++;
+                }
+
+                result.add(new Token(TokenType.WORD, text.substring(start, i), start));
+            } else {
+                String symbol = symbolAt(text, i);
+
+                if (symbol == null) {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + (i + 1));
+                }
+
+                result.add(new Token(TokenType.SYMBOL, symbol, i));
+                i += symbol.length();
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || (c == '_') || (c == '-') || (c == '.');
+    }
+
+    private static final String[] SYMBOLS = {
+        "!=", "<>", ">=", "<=", "&&", "||", "=", ">", "<", "!", "(", ")"
+    };
+
+    private static String symbolAt(String text, int index) {
+        for (String symbol : SYMBOLS) {
+            if (text.startsWith(symbol, index)) {
+                return symbol;
+            }
+        }
+
+        return null;
+    }
+
+    private enum TokenType {
+        WORD, NUMBER, QUOTED, SYMBOL
+    }
+
+    private static final class Token {
+        private final TokenType type;
+        private final String text;
+        private final int start;
+
+        private Token(TokenType type, String text, int start) {
+            this.type = type;
+            this.text = text;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import java.util.List;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.fields.Field;
+import com.googlecode.jsu.util.FieldValueMemo;
+import com.googlecode.jsu.util.WorkflowUtils;
+
+/**
+ * Values of the fields used by an expression, for one evaluation. Each field is resolved and
+ * read from the issue the first time a comparison needs it, and not at all if no comparison does.
+ * Values already read by other conditions of the request are taken from the {@link FieldValueMemo}.
+ */
+final class FieldValues {
+    private final Issue issue;
+    private final WorkflowUtils workflowUtils;
+    private final FieldValueMemo memo;
+    private final List<String> fieldIds;
+    private final Object[] values;
+    private final boolean[] read;
+
+    FieldValues(Issue issue, WorkflowUtils workflowUtils, FieldValueMemo memo, List<String> fieldIds) {
+        this.issue = issue;
+        this.workflowUtils = workflowUtils;
+        this.memo = memo;
+        this.fieldIds = fieldIds;
+        this.values = new Object[fieldIds.size()];
+        this.read = new boolean[fieldIds.size()];
+    }
+
+    Object get(int slot) {
+        if (!read[slot]) {
+            Field field = workflowUtils.getFieldFromKey(fieldIds.get(slot));
+
+            values[slot] = memo.getFieldValue(workflowUtils, issue, field, true);
+            read[slot] = true;
+        }
+
+        return values[slot];
+    }
+}
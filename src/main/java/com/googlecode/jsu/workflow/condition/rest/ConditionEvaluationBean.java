@@ -0,0 +1,46 @@
+package com.googlecode.jsu.workflow.condition.rest;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A condition to evaluate and the issues to evaluate it for.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ConditionEvaluationBean {
+    @XmlElement
+    private String type;
+
+    @XmlElement
+    private Map<String, String> args;
+
+    @XmlElement
+    private List<String> issueKeys;
+
+    public ConditionEvaluationBean() {
+    }
+
+    public ConditionEvaluationBean(String type, Map<String, String> args, List<String> issueKeys) {
+        this.type = type;
+        this.args = args;
+        this.issueKeys = issueKeys;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Map<String, String> getArgs() {
+        return args;
+    }
+
+    public List<String> getIssueKeys() {
+        return issueKeys;
+    }
+}
@@ -0,0 +1,101 @@
+package com.googlecode.jsu.workflow.condition.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.atlassian.crowd.embedded.api.User;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.IssueManager;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.PermissionManager;
+import com.atlassian.jira.security.Permissions;
+import com.atlassian.jira.user.ApplicationUsers;
+import com.googlecode.jsu.workflow.condition.BulkConditionService;
+
+/**
+ * Evaluates one condition of the plugin for a list of issues, for the logged in user.
+ *
+ * <pre>
+ * POST /rest/jsu/1.0/conditions/evaluate
+ * {"type": "valueField",
+ *  "args": {"fieldsList": "priority", "conditionList": "3", "comparisonType": "1", "fieldValue": "Blocker"},
+ *  "issueKeys": ["ABC-1", "ABC-2"]}
+ * </pre>
+ */
+@Path("/conditions")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class ConditionEvaluationResource {
+    private static final int MAX_ISSUES = 1000;
+
+    private final IssueManager issueManager;
+    private final PermissionManager permissionManager;
+    private final JiraAuthenticationContext authenticationContext;
+    private final BulkConditionService bulkConditionService;
+
+    public ConditionEvaluationResource(IssueManager issueManager,
+                                       PermissionManager permissionManager,
+                                       JiraAuthenticationContext authenticationContext,
+                                       BulkConditionService bulkConditionService) {
+        this.issueManager = issueManager;
+        this.permissionManager = permissionManager;
+        this.authenticationContext = authenticationContext;
+        this.bulkConditionService = bulkConditionService;
+    }
+
+    @POST
+    @Path("/evaluate")
+    public Response evaluate(ConditionEvaluationBean request) {
+        User user = authenticationContext.getLoggedInUser();
+
+        if ((request == null) || (request.getType() == null) || (request.getIssueKeys() == null)) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        if (request.getIssueKeys().size() > MAX_ISSUES) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("At most " + MAX_ISSUES + " issues could be evaluated at once").build();
+        }
+
+        List<Issue> issues = new ArrayList<Issue>(request.getIssueKeys().size());
+        List<String> notFound = new ArrayList<String>();
+
+        for (String key : request.getIssueKeys()) {
+            Issue issue = issueManager.getIssueObject(key);
+
+            if ((issue != null) && permissionManager.hasPermission(Permissions.BROWSE, issue, user)) {
+                issues.add(issue);
+            } else {
+                notFound.add(key);
+            }
+        }
+
+        Map<String, String> args = (request.getArgs() != null) ?
+                request.getArgs() : Collections.<String, String>emptyMap();
+        Map<Issue, Boolean> results;
+
+        try {
+            results = bulkConditionService.evaluate(ApplicationUsers.from(user), request.getType(), args, issues);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+
+        Map<String, Boolean> byKey = new LinkedHashMap<String, Boolean>();
+
+        for (Map.Entry<Issue, Boolean> result : results.entrySet()) {
+            byKey.put(result.getKey().getKey(), result.getValue());
+        }
+
+        return Response.ok(new ConditionResultsBean(byKey, notFound)).build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.googlecode.jsu.workflow.condition.rest;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Results of a condition by issue key. Issues which do not exist or which the user
+ * can not browse are listed as not found.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ConditionResultsBean {
+    @XmlElement
+    private Map<String, Boolean> results;
+
+    @XmlElement
+    private List<String> notFound;
+
+    public ConditionResultsBean() {
+    }
+
+    public ConditionResultsBean(Map<String, Boolean> results, List<String> notFound) {
+        this.results = results;
+        this.notFound = notFound;
+    }
+
+    public Map<String, Boolean> getResults() {
+        return results;
+    }
+
+    public List<String> getNotFound() {
+        return notFound;
+    }
+}
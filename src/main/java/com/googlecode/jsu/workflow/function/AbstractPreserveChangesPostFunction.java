@@ -11,6 +11,7 @@ import com.atlassian.jira.issue.history.ChangeItemBean;
 import com.atlassian.jira.issue.util.DefaultIssueChangeHolder;
 import com.atlassian.jira.issue.util.IssueChangeHolder;
 import com.atlassian.jira.workflow.function.issue.AbstractJiraFunctionProvider;
+import com.googlecode.jsu.util.FieldValueMemo;
 import com.opensymphony.module.propertyset.PropertySet;
 import com.opensymphony.workflow.WorkflowException;
 
@@ -38,6 +39,9 @@ abstract class AbstractPreserveChangesPostFunction extends AbstractJiraFunctionP
     public final void execute(Map transientVars, Map args, PropertySet ps) throws WorkflowException {
         IssueChangeHolder holder = createChangeHolder(transientVars);
 
+        // Conditions and validators are over, values read by them are not shared any more.
+        FieldValueMemo.clear(transientVars);
+
         if (log.isDebugEnabled()) {
             log.debug(
                     "Executing function with [transientVars=" +
@@ -75,8 +75,8 @@ public class DateCompareValidator extends AbstractDateCompareValidator {
 
         // Compare Dates.
         if ((field1 != null) && (field2 != null)) {
-            Object objValue1 = workflowUtils.getFieldValueFromIssue(getIssue(), field1);
-            Object objValue2 = workflowUtils.getFieldValueFromIssue(getIssue(), field2);
+            Object objValue1 = getFieldValue(getIssue(), field1);
+            Object objValue2 = getFieldValue(getIssue(), field2);
             Date objDate1, objDate2;
 
             try {
@@ -68,7 +68,7 @@ public class DateExpressionCompareValidator extends AbstractDateCompareValidator
 
         // Compare Dates.
         if ((field != null) && (expression != null)) {
-            Object objValue1 = workflowUtils.getFieldValueFromIssue(getIssue(), field);
+            Object objValue1 = getFieldValue(getIssue(), field);
 
             Date objDate1, objDate2;
 
@@ -104,7 +104,7 @@ public class FieldsRequiredValidator extends GenericValidator {
                     Collection originalFixVersions = originalissue!=null?originalissue.getFixVersions():new ArrayList<Version>();
                     fieldValue = getVersionsWithArchived(issue,field,originalFixVersions);
                 } else {
-                    fieldValue = workflowUtils.getFieldValueFromIssue(issue, field);
+                    fieldValue = getFieldValue(issue, field);
                 }
 
                 if (log.isDebugEnabled()) {
@@ -142,7 +142,7 @@ public class FieldsRequiredValidator extends GenericValidator {
     private Collection getVersionsWithArchived(Issue issue, Field field, Collection alreadySelectedVersions) {
         Collection archived = versionManager.getVersionsArchived(issue.getProjectObject());
         archived.retainAll(alreadySelectedVersions);
-        Object selected = workflowUtils.getFieldValueFromIssue(issue,field);
+        Object selected = getFieldValue(issue,field);
         if(selected!=null) {
             archived.addAll((Collection)selected);
         }
@@ -3,11 +3,10 @@ package com.googlecode.jsu.workflow.validator;
 import com.atlassian.jira.issue.Issue;
 import com.atlassian.jira.issue.fields.Field;
 import com.atlassian.jira.issue.fields.screen.FieldScreen;
-import com.googlecode.jsu.annotation.AnnotationProcessor;
-import com.googlecode.jsu.annotation.Argument;
-import com.googlecode.jsu.annotation.MapFieldProcessor;
-import com.googlecode.jsu.annotation.TransientVariable;
+import com.googlecode.jsu.annotation.CompiledFieldBinder;
+import com.googlecode.jsu.annotation.FieldBinder;
 import com.googlecode.jsu.util.FieldCollectionsUtils;
+import com.googlecode.jsu.util.FieldValueMemo;
 import com.googlecode.jsu.util.ValidatorErrorsBuilder;
 import com.googlecode.jsu.util.WorkflowUtils;
 import com.opensymphony.module.propertyset.PropertySet;
@@ -32,6 +31,7 @@ public abstract class GenericValidator implements Validator {
     private Issue issue = null;
     private Issue originalIssue = null;
     private String transitionComment = null;
+    private Map transientVars = null;
 
     protected final FieldCollectionsUtils fieldCollectionsUtils;
     protected final WorkflowUtils workflowUtils;
@@ -70,6 +70,7 @@ public abstract class GenericValidator implements Validator {
         this.issue = (Issue) transientVars.get("issue");
         this.originalIssue = (Issue) transientVars.get("originalissueobject");
         this.transitionComment = (String) transientVars.get("comment");
+        this.transientVars = transientVars;
 
         this.validate();
 
@@ -82,12 +83,14 @@ public abstract class GenericValidator implements Validator {
      * @param arguments
      */
     protected void initObject(Map<String, Object> vars, Map<String, Object> arguments) {
-        final AnnotationProcessor processor = new AnnotationProcessor();
-
-        processor.addVisitor(new MapFieldProcessor(Argument.class, arguments));
-        processor.addVisitor(new MapFieldProcessor(TransientVariable.class, vars));
+        getFieldBinder().bind(this, arguments, vars);
+    }
 
-        processor.processAnnotations(this);
+    /**
+     * @return the binder used to initialize the annotated fields of this validator.
+     */
+    protected FieldBinder getFieldBinder() {
+        return CompiledFieldBinder.forClass(getClass());
     }
 
     protected final Issue getIssue() {
@@ -102,6 +105,13 @@ public abstract class GenericValidator implements Validator {
         return this.transitionComment;
     }
 
+    /**
+     * @return the value of the field, read once for all validators of the transition.
+     */
+    protected final Object getFieldValue(Issue issue, Field field) {
+        return FieldValueMemo.get(transientVars).getFieldValue(workflowUtils, issue, field, false);
+    }
+
     protected final boolean hasViewScreen() {
         return (fieldScreen != null);
     }
@@ -68,8 +68,8 @@ public class WindowsDateValidator extends GenericValidator {
     private void checkDatesCondition(Field fldDate1, Field fldDate2, String window) {
         boolean condOK = false;
 
-        Object objDate1 = workflowUtils.getFieldValueFromIssue(getIssue(), fldDate1);
-        Object objDate2 = workflowUtils.getFieldValueFromIssue(getIssue(), fldDate2);
+        Object objDate1 = getFieldValue(getIssue(), fldDate1);
+        Object objDate2 = getFieldValue(getIssue(), fldDate2);
 
         I18nHelper i18nh = this.beanFactory.getInstance(
             ComponentManager.getInstance().getJiraAuthenticationContext().getLoggedInUser());
@@ -0,0 +1,75 @@
+(function($) {
+
+    var PAGE_SIZE = 20;
+
+    function escapeHtml(value) {
+        return $("<div/>").text(value == null ? "" : String(value)).html();
+    }
+
+    function detailRow(summaryRow) {
+        var row = summaryRow.next(".jsu-transition-detail");
+
+        if (!row.length) {
+            row = $("<tr class='jsu-transition-detail'><td colspan='5'><table width='100%' cellpadding='2'><tbody/></table></td></tr>");
+            summaryRow.after(row);
+        }
+
+        return row;
+    }
+
+    function loadPage(link, row, start) {
+        var table = link.closest(".jsu-transitions-summary"),
+            body = row.find("tbody");
+
+        row.find(".jsu-transition-more").remove();
+
+        $.ajax({
+            url: AJS.contextPath() + "/rest/jsu/1.0/transitions/" + encodeURIComponent(table.data("issue-key")),
+            data: {from: link.data("from"), to: link.data("to"), start: start, max: PAGE_SIZE},
+            dataType: "json",
+            cache: false,
+            success: function(page) {
+                $.each(page.transitions, function(index, tran) {
+                    body.append(
+                        "<tr><td width='34%'></td>" +
+                        "<td width='15%'>" + escapeHtml(tran.duration) + "</td>" +
+                        "<td width='15%'></td>" +
+                        "<td width='18%'>" + escapeHtml(tran.changedByDisplayName) + "</td>" +
+                        "<td width='18%' align='right'>" + escapeHtml(tran.changedAt) + "</td></tr>"
+                    );
+                });
+
+                var next = page.start + page.transitions.length;
+
+                if (page.more) {
+                    var more = $("<tr class='jsu-transition-more'><td colspan='5' align='center'><a href='#'></a></td></tr>");
+
+                    more.find("a").text(table.data("more-label")).click(function(e) {
+                        e.preventDefault();
+                        loadPage(link, row, next);
+                    });
+
+                    body.append(more);
+                }
+            },
+            error: function() {
+                body.append("<tr><td colspan='5'>" + escapeHtml(table.data("error-label")) + "</td></tr>");
+            }
+        });
+    }
+
+    $(document).delegate(".jsu-transitions-summary .jsu-transition-toggle", "click", function(e) {
+        e.preventDefault();
+
+        var link = $(this),
+            summaryRow = link.closest("tr.jsu-transition-summary"),
+            row = summaryRow.next(".jsu-transition-detail");
+
+        if (row.length) {
+            row.toggle();
+        } else {
+            loadPage(link, detailRow(summaryRow), 0);
+        }
+    });
+
+})(AJS.$);
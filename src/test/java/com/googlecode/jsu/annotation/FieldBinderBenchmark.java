@@ -0,0 +1,66 @@
+package com.googlecode.jsu.annotation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.googlecode.jsu.workflow.WorkflowFieldsRequiredValidatorPluginFactory;
+import com.googlecode.jsu.workflow.validator.DateCompareValidator;
+import com.googlecode.jsu.workflow.validator.FieldsRequiredValidator;
+
+/**
+ * Compares {@link CompiledFieldBinder} with the former {@link VisitorFieldBinder} on real validators.
+ * It is not a unit test, run it as a Java application:
+ *
+ * <pre>java -cp target/classes:target/test-classes:... com.googlecode.jsu.annotation.FieldBinderBenchmark</pre>
+ */
+public class FieldBinderBenchmark {
+    private static final int WARMUP = 200000;
+    private static final int ITERATIONS = 2000000;
+
+    public static void main(String[] args) {
+        Object dateCompare = new DateCompareValidator(null, null, null, null, null);
+        Map<String, Object> dateCompareArgs = new HashMap<String, Object>();
+
+        dateCompareArgs.put("date1Selected", "duedate");
+        dateCompareArgs.put("date2Selected", "created");
+        dateCompareArgs.put("conditionSelected", "3");
+        dateCompareArgs.put("includeTimeSelected", "true");
+
+        Object fieldsRequired = new FieldsRequiredValidator(null, null, null, null, null);
+        Map<String, Object> fieldsRequiredArgs = new HashMap<String, Object>();
+
+        fieldsRequiredArgs.put(WorkflowFieldsRequiredValidatorPluginFactory.SELECTED_FIELDS, "summary@@duedate@@");
+
+        Map<String, Object> vars = new HashMap<String, Object>();
+
+        run("DateCompareValidator", dateCompare, dateCompareArgs, vars);
+        run("FieldsRequiredValidator", fieldsRequired, fieldsRequiredArgs, vars);
+    }
+
+    private static void run(String name, Object target, Map<String, Object> arguments, Map<String, Object> vars) {
+        FieldBinder visitor = new VisitorFieldBinder();
+        FieldBinder compiled = CompiledFieldBinder.forClass(target.getClass());
+
+        measure(visitor, target, arguments, vars, WARMUP);
+        measure(compiled, target, arguments, vars, WARMUP);
+
+        long visitorNanos = measure(visitor, target, arguments, vars, ITERATIONS);
+        long compiledNanos = measure(compiled, target, arguments, vars, ITERATIONS);
+
+        System.out.println(
+                name + ": MapFieldProcessor " + (visitorNanos / ITERATIONS) + " ns/op, " +
+                "CompiledFieldBinder " + (compiledNanos / ITERATIONS) + " ns/op"
+        );
+    }
+
+    private static long measure(FieldBinder binder, Object target,
+                                Map<String, Object> arguments, Map<String, Object> vars, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            binder.bind(target, arguments, vars);
+        }
+
+        return System.nanoTime() - start;
+    }
+}
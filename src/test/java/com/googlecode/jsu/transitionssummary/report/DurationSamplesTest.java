@@ -0,0 +1,53 @@
+package com.googlecode.jsu.transitionssummary.report;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DurationSamplesTest {
+    @Test
+    public void emptySamples() {
+        DurationSamples samples = new DurationSamples();
+
+        assertEquals(0, samples.getCount());
+        assertEquals(0, samples.getAverage());
+        assertEquals(0, samples.getMedian());
+        assertEquals(0, samples.getPercentile(95));
+    }
+
+    @Test
+    public void statistics() {
+        DurationSamples samples = new DurationSamples();
+
+        for (long duration = 100; duration >= 1; duration--) {
+            samples.add(duration * 1000, 2);
+        }
+
+        assertEquals(100, samples.getCount());
+        assertEquals(200, samples.getExecutions());
+        assertEquals(50500, samples.getAverage());
+        assertEquals(50000, samples.getMedian());
+        assertEquals(95000, samples.getPercentile(95));
+        assertEquals(100000, samples.getPercentile(100));
+    }
+
+    @Test
+    public void mergedSamples() {
+        DurationSamples first = new DurationSamples();
+        DurationSamples second = new DurationSamples();
+
+        first.add(10, 1);
+        first.add(30, 1);
+
+        for (int i = 0; i < 20; i++) {
+            second.add(20, 1);
+        }
+
+        first.addAll(second);
+
+        assertEquals(22, first.getCount());
+        assertEquals(20, first.getMedian());
+        assertEquals(20, first.getPercentile(95));
+        assertEquals(30, first.getPercentile(100));
+    }
+}
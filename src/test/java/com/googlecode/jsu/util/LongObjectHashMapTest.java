@@ -0,0 +1,67 @@
+package com.googlecode.jsu.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LongObjectHashMapTest {
+    @Test
+    public void putAndGet() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0L));
+
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-1L, "minus one"));
+        assertNull(map.put((3L << 32) | 5L, "3to5"));
+
+        assertEquals("zero", map.get(0L));
+        assertEquals("minus one", map.get(-1L));
+        assertEquals("3to5", map.get((3L << 32) | 5L));
+        assertNull(map.get((5L << 32) | 3L));
+        assertEquals(3, map.size());
+
+        assertEquals("zero", map.put(0L, "again"));
+        assertEquals("again", map.get(0L));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void growsKeepingEntries() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<Long>(2);
+
+        for (long from = -1; from < 100; from++) {
+            for (long to = -1; to < 20; to++) {
+                long key = (from << 32) | (to & 0xffffffffL);
+
+                map.put(key, key);
+            }
+        }
+
+        assertEquals(101 * 21, map.size());
+
+        for (long from = -1; from < 100; from++) {
+            for (long to = -1; to < 20; to++) {
+                long key = (from << 32) | (to & 0xffffffffL);
+
+                assertEquals(Long.valueOf(key), map.get(key));
+            }
+        }
+
+        assertFalse(map.containsKey(100L << 32));
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullValuesAreRejected() {
+        new LongObjectHashMap<String>().put(1L, null);
+    }
+}
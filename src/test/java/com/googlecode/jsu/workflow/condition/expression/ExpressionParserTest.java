@@ -0,0 +1,134 @@
+package com.googlecode.jsu.workflow.condition.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.issue.fields.Field;
+import com.googlecode.jsu.util.FieldValueMemo;
+import com.googlecode.jsu.util.WorkflowUtils;
+
+public class ExpressionParserTest {
+    @Test
+    public void precedence() {
+        assertParsed(
+                "(priority = 'Blocker' AS String OR (components = 'Server' AS String AND labels = 'urgent' AS String))",
+                "priority = Blocker or components = Server and labels = urgent"
+        );
+        assertParsed(
+                "((priority = 'Blocker' AS String OR components = 'Server' AS String) AND labels = 'urgent' AS String)",
+                "(priority = Blocker || components = Server) && labels = urgent"
+        );
+        assertParsed(
+                "(NOT labels = 'urgent' AS String AND NOT NOT labels = 'x' AS String)",
+                "NOT labels = urgent AND !!labels = x"
+        );
+    }
+
+    @Test
+    public void values() {
+        assertParsed("customfield_10010 >= '10.5' AS Number", "customfield_10010 >= 10.5");
+        assertParsed("customfield_10010 < '-3' AS Number", "customfield_10010<-3");
+        assertParsed("summary = '10' AS String", "summary = '10'");
+        assertParsed("summary != 'it's \"done\"' AS String", "summary <> 'it\\'s \"done\"'");
+        assertParsed("customfield_10020 = '10100' AS OptionID", "customfield_10020 = 10100 as optionid");
+        assertParsed("resolution = '' AS String", "resolution = EMPTY");
+    }
+
+    @Test
+    public void fieldsAreReadOnce() {
+        CompiledExpression expression = new ExpressionParser(
+                "labels = a OR priority = Major OR labels = b AND NOT priority = Minor"
+        ).parse();
+
+        assertEquals(Arrays.asList("labels", "priority"), expression.getFieldIds());
+
+        CountingWorkflowUtils workflowUtils = new CountingWorkflowUtils();
+        FieldValues values = new FieldValues(
+                proxy(Issue.class, null), workflowUtils, FieldValueMemo.get(null), expression.getFieldIds()
+        );
+
+        assertEquals("labels", values.get(0));
+        assertEquals("priority", values.get(1));
+        assertEquals("labels", values.get(0));
+        assertEquals("priority", values.get(1));
+        assertEquals(2, workflowUtils.reads);
+    }
+
+    @Test
+    public void errors() {
+        assertInvalid("");
+        assertInvalid("priority");
+        assertInvalid("priority =");
+        assertInvalid("priority == Major");
+        assertInvalid("(priority = Major");
+        assertInvalid("priority = Major)");
+        assertInvalid("priority = Major AND");
+        assertInvalid("priority = 'Major");
+        assertInvalid("duedate = '2010-01-01' AS Date");
+        assertInvalid("priority = Major # comment");
+    }
+
+    private static <T> T proxy(Class<T> type, final String id) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[] {type},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getId".equals(method.getName())) {
+                            return id;
+                        } else if ("hashCode".equals(method.getName())) {
+                            return System.identityHashCode(proxy);
+                        } else if ("equals".equals(method.getName())) {
+                            return proxy == args[0];
+                        }
+
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        ));
+    }
+
+    private static void assertParsed(String expected, String text) {
+        assertEquals(expected, new ExpressionParser(text).parse().toString());
+    }
+
+    private static void assertInvalid(String text) {
+        try {
+            new ExpressionParser(text).parse();
+
+            fail("Expression [" + text + "] should be invalid");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Resolves any key to a field with this id, and gives the id as value of the field.
+     */
+    private static final class CountingWorkflowUtils extends WorkflowUtils {
+        private int reads = 0;
+
+        private CountingWorkflowUtils() {
+            super(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public Field getFieldFromKey(String key) {
+            return proxy(Field.class, key);
+        }
+
+        @Override
+        public Object getFieldValueFromIssue(Issue issue, Field field, boolean asOption) {
+            reads++;
+
+            return field.getId();
+        }
+    }
+}